@@ -0,0 +1,94 @@
+package com.ph.security;
+
+import com.ph.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Latency percentiles of a short CPU-bound probe, standing in for task API work, while nobody logs in
+ * ("idle"), while a flood of logins runs BCrypt on the request threads as before PasswordVerifier
+ * ("unbounded"), and while the same flood goes through PasswordVerifier ("verifier"), which holds
+ * verification to its own threads and sheds the rest with 503. Compare the p0.99 rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+public class LoginFloodBenchmark {
+
+    private static final int ATTACKERS = 64;
+
+    @Param({"idle", "unbounded", "verifier"})
+    private String logins;
+
+    private final List<Thread> attackers = new ArrayList<>();
+    private PasswordVerifier verifier;
+    private volatile boolean flooding;
+
+    @Setup
+    public void startFlood() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+        String hash = encoder.encode("correct horse battery staple");
+        verifier = new PasswordVerifier(encoder, 0, 64, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        if ("idle".equals(logins)) {
+            return;
+        }
+        flooding = true;
+        for (int i = 0; i < ATTACKERS; i++) {
+            Thread attacker = Thread.ofPlatform().daemon().start(() -> {
+                while (flooding) {
+                    if ("unbounded".equals(logins)) {
+                        encoder.matches("guess", hash);
+                    } else {
+                        try {
+                            verifier.matches("guess", hash);
+                        } catch (ServiceUnavailableException ex) {
+                            // Shed with 503; stands in for the client's round trip before it retries.
+                            LockSupport.parkNanos(1_000_000);
+                        }
+                    }
+                }
+            });
+            attackers.add(attacker);
+        }
+    }
+
+    @TearDown
+    public void stopFlood() throws InterruptedException {
+        flooding = false;
+        for (Thread attacker : attackers) {
+            attacker.join();
+        }
+        attackers.clear();
+        verifier.close();
+    }
+
+    @Benchmark
+    public long probe() {
+        long sink = 0;
+        for (int k = 0; k < 20_000; k++) {
+            sink += (k * 31L) ^ (sink >>> 3);
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ph.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The revocation check the JWT filter makes on every request, for tokens that were never revoked (the
+ * common case: the bloom filter answers without touching the exact set) and for revoked ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TokenRevocationBenchmark {
+
+    private static final int PROBES = 1 << 12;
+
+    @Param({"1000", "100000"})
+    private int revoked;
+
+    private TokenRevocationList revocations;
+    private String[] live;
+    private String[] revokedIds;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() {
+        revocations = new TokenRevocationList(revoked, 0.01);
+        Instant expiry = Instant.now().plus(1, ChronoUnit.HOURS);
+        revokedIds = new String[PROBES];
+        for (int i = 0; i < revoked; i++) {
+            String jti = UUID.randomUUID().toString();
+            revocations.add(jti, expiry);
+            if (i < PROBES) {
+                revokedIds[i] = jti;
+            }
+        }
+        live = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            live[i] = UUID.randomUUID().toString();
+            if (revokedIds[i] == null) {
+                revokedIds[i] = revokedIds[i % revoked];
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean liveToken(Cursor cursor) {
+        return revocations.isRevoked(live[cursor.next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public boolean revokedToken(Cursor cursor) {
+        return revocations.isRevoked(revokedIds[cursor.next++ & (PROBES - 1)]);
+    }
+}
@@ -0,0 +1,34 @@
+package com.ph.services;
+
+import com.ph.PHApplication;
+import com.ph.model.Profile;
+import com.ph.repositories.ProfileRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.UUID;
+
+/** The application on the h2 profile, without listening ports, for benchmarks that go through its beans. */
+final class H2Application {
+
+    private H2Application() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        // Devtools reads this before any property source; its restart would rerun the benchmark's caller.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(PHApplication.class)
+                .profiles("h2")
+                .properties("server.port=0", "management.server.port=0", "logging.level.root=WARN")
+                .run();
+    }
+
+    static UUID owner(ConfigurableApplicationContext context) {
+        UUID id = UUID.randomUUID();
+        Profile profile = new Profile();
+        profile.setId(id);
+        profile.setEmail(id + "@example.com");
+        context.getBean(ProfileRepository.class).save(profile);
+        return id;
+    }
+}
@@ -0,0 +1,131 @@
+package com.ph.services;
+
+import com.ph.dto.TaskCreateDto;
+import com.ph.exception.PreconditionFailedException;
+import com.ph.model.Task;
+import com.ph.repositories.TaskRepository;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Committed increments per second through read / conditional write / retry-on-412 cycles, with every
+ * thread on one task (contended) or each on its own (uncontended), with the 412s taken reported as the secondary
+ * "conflicts" metric. Override the thread count with -t.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+public class OptimisticConcurrencyBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Application {
+        ConfigurableApplicationContext context;
+        TaskService taskService;
+        TaskRepository taskRepository;
+        TransactionTemplate readOnly;
+        UUID ownerId;
+
+        @Setup
+        public void start() {
+            context = H2Application.start();
+            taskService = context.getBean(TaskService.class);
+            taskRepository = context.getBean(TaskRepository.class);
+            readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            readOnly.setReadOnly(true);
+            ownerId = H2Application.owner(context);
+        }
+
+        @TearDown
+        public void stop() {
+            context.close();
+        }
+
+        UUID createCounter() {
+            TaskCreateDto dto = new TaskCreateDto();
+            dto.setTitle("counter");
+            dto.setDescription("0");
+            return taskService.createTask(ownerId, dto).getId();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedCounter {
+        UUID taskId;
+
+        @Setup(Level.Iteration)
+        public void create(Application app) {
+            taskId = app.createCounter();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class OwnCounter {
+        UUID taskId;
+
+        @Setup(Level.Iteration)
+        public void create(Application app) {
+            taskId = app.createCounter();
+        }
+    }
+
+    /** 412s taken, summed over threads and reported per second next to the commits. */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Conflicts {
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            conflicts = 0;
+        }
+    }
+
+    @Benchmark
+    public void contended(Application app, SharedCounter counter, Conflicts conflicts) {
+        conflicts.conflicts += increment(app, counter.taskId);
+    }
+
+    @Benchmark
+    public void uncontended(Application app, OwnCounter counter, Conflicts conflicts) {
+        conflicts.conflicts += increment(app, counter.taskId);
+    }
+
+    /** Commits one increment; returns the 412s it took. */
+    private static int increment(Application app, UUID taskId) {
+        int conflicts = 0;
+        while (true) {
+            Task current = app.readOnly.execute(status ->
+                    app.taskRepository.findByIdAndOwnerId(taskId, app.ownerId).orElseThrow());
+            TaskCreateDto dto = new TaskCreateDto();
+            dto.setTitle(current.getTitle());
+            dto.setDescription(String.valueOf(Long.parseLong(current.getDescription()) + 1));
+            try {
+                app.taskService.updateTaskForOwner(app.ownerId, taskId, dto, current.getVersion()).orElseThrow();
+                return conflicts;
+            } catch (PreconditionFailedException ex) {
+                conflicts++;
+            }
+        }
+    }
+}
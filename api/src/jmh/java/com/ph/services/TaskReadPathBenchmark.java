@@ -0,0 +1,94 @@
+package com.ph.services;
+
+import com.ph.dto.TaskDto;
+import com.ph.model.Task;
+import com.ph.repositories.TaskRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing one owner's tasks: managed entities copied into TaskDto in a read-write transaction (the old
+ * path) against TaskDto built by the query in a read-only one (TaskRepository.findDtosByOwnerId).
+ * Run with -prof gc to compare allocation per list as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TaskReadPathBenchmark {
+
+    @Param({"100", "2000"})
+    private int tasks;
+
+    private ConfigurableApplicationContext context;
+    private TaskRepository taskRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private UUID ownerId;
+
+    @Setup
+    public void start() {
+        context = H2Application.start();
+        taskRepository = context.getBean(TaskRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        ownerId = H2Application.owner(context);
+        List<Task> seed = new ArrayList<>(tasks);
+        OffsetDateTime now = OffsetDateTime.now();
+        for (int i = 0; i < tasks; i++) {
+            seed.add(new Task(null, ownerId, "Task " + i, "Description of task " + i,
+                    null, now.minusSeconds(i), now.minusSeconds(i)));
+        }
+        taskRepository.saveAll(seed);
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TaskDto> entityHydration() {
+        return readWrite.execute(status -> entityManager
+                .createQuery("select t from Task t where t.ownerId = :ownerId order by t.createdAt desc, t.id asc", Task.class)
+                .setParameter("ownerId", ownerId)
+                .getResultList()
+                .stream()
+                .map(t -> new TaskDto(t.getId(), t.getTitle(), t.getDescription(), t.getDueDate(),
+                        t.getCreatedAt(), t.getUpdatedAt()))
+                .toList());
+    }
+
+    @Benchmark
+    public List<TaskDto> projection() {
+        // Straight to the repository: TaskService would answer repeated reads from TaskListCache.
+        return readOnly.execute(status -> taskRepository.findDtosByOwnerId(ownerId));
+    }
+}
@@ -0,0 +1,91 @@
+package com.ph.services;
+
+import com.ph.model.Task;
+import com.ph.repositories.TaskRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of concurrent requests, each waiting on I/O outside the database and then reading a page of tasks
+ * through TaskService, on Tomcat's default 200 platform threads or on virtual threads. Virtual threads are
+ * queued by the connection bulkhead rather than capped by a worker pool; one op is the whole burst.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class VirtualThreadBulkheadBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+    private static final int REQUESTS = 2_000;
+    private static final long IO_WAIT_MS = 20;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private UUID ownerId;
+
+    @Setup
+    public void start() {
+        context = H2Application.start();
+        taskService = context.getBean(TaskService.class);
+
+        ownerId = H2Application.owner(context);
+        List<Task> tasks = new ArrayList<>();
+        OffsetDateTime now = OffsetDateTime.now();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new Task(null, ownerId, "Task " + i, null, null, now.minusSeconds(i), now.minusSeconds(i)));
+        }
+        context.getBean(TaskRepository.class).saveAll(tasks);
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        ExecutorService executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+        List<Future<Integer>> results = new ArrayList<>(REQUESTS);
+        int listed = 0;
+        try (executor) {
+            for (int i = 0; i < REQUESTS; i++) {
+                results.add(executor.submit(() -> {
+                    Thread.sleep(IO_WAIT_MS);
+                    return taskService.getTaskPageForOwner(ownerId, null, 20).tasks().size();
+                }));
+            }
+            for (Future<Integer> result : results) {
+                listed += result.get(60, TimeUnit.SECONDS);
+            }
+        }
+        return listed;
+    }
+}
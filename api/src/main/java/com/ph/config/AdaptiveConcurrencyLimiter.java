@@ -0,0 +1,152 @@
+package com.ph.config;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that follows latency, after the gradient algorithm of Netflix's concurrency-limits.
+ * <p>
+ * Each completed call is a sample, folded into a short-term average RTT. The baseline is the lowest that
+ * average has been over the last one to two {@link #BASELINE_WINDOW_NANOS windows}, i.e. the latency with no
+ * queueing (the average rather than single samples, whose minimum is an outlier). Gradient =
+ * TOLERANCE * baseline / short, at most 1, and the limit shrinks in proportion (at most
+ * halving per sample). Only at gradient 1, and with no dropped call in the last SHORT_WINDOW samples, does it
+ * grow by about sqrt(limit). A dropped call (e.g. no connection within the bulkhead wait) is a multiplicative
+ * decrease, as in AIMD. Because the baseline is a minimum it does not creep up during a slowdown; only one
+ * that outlasts a whole window becomes the new baseline.
+ * <p>
+ * The limit does not grow while fewer than half the permits are in use, so a quiet period does not inflate
+ * it; it still shrinks then if latency rises. Calls over the limit are refused immediately rather than queued.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    static final long BASELINE_WINDOW_NANOS = 60_000_000_000L;
+
+    private static final double TOLERANCE = 2.0;
+    private static final double SMOOTHING = 0.2;
+    private static final double DROP_BACKOFF = 0.9;
+    private static final double SHORT_WINDOW = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile double limit;
+
+    // guarded by this
+    private double shortRtt;
+    private long windowStartNanos;
+    private long windowMinRtt;
+    private long previousWindowMinRtt;
+    private int samplesSinceDrop = Integer.MAX_VALUE;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Need 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /** A permit to run one call, or empty when the limit is reached. */
+    public Optional<Permit> tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > (int) limit) {
+            inFlight.decrementAndGet();
+            rejected.incrementAndGet();
+            return Optional.empty();
+        }
+        return Optional.of(new Permit(System.nanoTime(), current));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    synchronized void onSample(long nowNanos, long rttNanos, int inFlightAtStart, boolean dropped) {
+        double current = limit;
+        double next;
+        if (dropped) {
+            samplesSinceDrop = 0;
+            next = current * DROP_BACKOFF;
+        } else {
+            if (samplesSinceDrop < Integer.MAX_VALUE) {
+                samplesSinceDrop++;
+            }
+            shortRtt = shortRtt == 0 ? rttNanos : shortRtt + (rttNanos - shortRtt) / SHORT_WINDOW;
+            long baseline = baseline(nowNanos, Math.max(1, (long) shortRtt));
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baseline / shortRtt));
+            // Only the growth term waits for real load; a slowdown must shrink the limit regardless.
+            boolean grow = gradient >= 1.0 && samplesSinceDrop >= SHORT_WINDOW && inFlightAtStart >= current / 2;
+            next = current * gradient + (grow ? Math.sqrt(current) : 0);
+        }
+        next = current * (1 - SMOOTHING) + next * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    /** Minimum short-term RTT of the current and the previous window. */
+    private long baseline(long nowNanos, long rttNanos) {
+        if (windowMinRtt == 0) {
+            windowStartNanos = nowNanos;
+            windowMinRtt = rttNanos;
+            previousWindowMinRtt = rttNanos;
+        } else if (nowNanos - windowStartNanos >= BASELINE_WINDOW_NANOS) {
+            windowStartNanos = nowNanos;
+            previousWindowMinRtt = windowMinRtt;
+            windowMinRtt = rttNanos;
+        } else {
+            windowMinRtt = Math.min(windowMinRtt, rttNanos);
+        }
+        return Math.min(windowMinRtt, previousWindowMinRtt);
+    }
+
+    /** Must be released exactly once, whatever the outcome of the call. */
+    public final class Permit {
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private boolean released;
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /** The call completed; its duration is a latency sample. */
+        public void success() {
+            release(false, true);
+        }
+
+        /** The call failed for lack of capacity downstream; shrinks the limit. */
+        public void dropped() {
+            release(true, true);
+        }
+
+        /** The call finished but its duration says nothing about load (e.g. a client error). */
+        public void ignore() {
+            release(false, false);
+        }
+
+        private void release(boolean dropped, boolean sample) {
+            if (released) {
+                return;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+            if (sample) {
+                long now = System.nanoTime();
+                onSample(now, now - startNanos, inFlightAtStart, dropped);
+            }
+        }
+    }
+}
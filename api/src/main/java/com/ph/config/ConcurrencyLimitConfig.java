@@ -0,0 +1,50 @@
+package com.ph.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Load shedding for the task and profile API. The limiter state is published as
+ * api.limiter.limit, api.limiter.in-flight and api.limiter.rejected under /actuator/metrics.
+ */
+@Configuration
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter apiConcurrencyLimiter(@Value("${api.limiter.initial-limit:20}") int initialLimit,
+                                                            @Value("${api.limiter.min-limit:4}") int minLimit,
+                                                            @Value("${api.limiter.max-limit:200}") int maxLimit,
+                                                            MeterRegistry meterRegistry) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit);
+        Gauge.builder("api.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("api.limiter.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently admitted")
+                .register(meterRegistry);
+        FunctionCounter.builder("api.limiter.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+                .description("Requests refused with 503 because the limit was reached")
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            AdaptiveConcurrencyLimiter apiConcurrencyLimiter,
+            ObjectMapper objectMapper,
+            @Value("${api.limiter.retry-after:PT1S}") Duration retryAfter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(apiConcurrencyLimiter, objectMapper, retryAfter));
+        // Default order: runs after Spring Security, so unauthenticated requests still get 401.
+        registration.addUrlPatterns("/api/tasks/*", "/api/profiles/*");
+        return registration;
+    }
+}
@@ -0,0 +1,72 @@
+package com.ph.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ph.dto.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Admits task and profile requests through the {@link AdaptiveConcurrencyLimiter}, i.e. in front of
+ * TaskService and the profile repository calls. Over the limit the request gets 503 with Retry-After
+ * at once, without touching the database. A 503 from the handler (database unavailable or bulkhead
+ * full) counts as a drop; the SSE stream (no connection held) is not limited, and export and import
+ * (duration depends on the data, not on load) are not sampled. Imports are also capped on their own
+ * (tasks.import.max-concurrent), so uploads cannot take every permit.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ObjectMapper objectMapper;
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, ObjectMapper objectMapper, Duration retryAfter) {
+        this.limiter = limiter;
+        this.objectMapper = objectMapper;
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().endsWith("/api/tasks/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Optional<AdaptiveConcurrencyLimiter.Permit> acquired = limiter.tryAcquire();
+        if (acquired.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    new ErrorResponse("Service temporarily unavailable", "SERVICE_UNAVAILABLE"));
+            return;
+        }
+
+        AdaptiveConcurrencyLimiter.Permit permit = acquired.get();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            String uri = request.getRequestURI();
+            if (!completed || uri.endsWith("/api/tasks/export") || uri.endsWith("/api/tasks/import")) {
+                permit.ignore();
+            } else if (response.getStatus() == HttpServletResponse.SC_SERVICE_UNAVAILABLE) {
+                permit.dropped();
+            } else {
+                permit.success();
+            }
+        }
+    }
+}
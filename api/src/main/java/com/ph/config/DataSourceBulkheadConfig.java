@@ -0,0 +1,42 @@
+package com.ph.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts a {@link BulkheadDataSource} sized to maximum-pool-size in front of every Hikari pool.
+ * <p>
+ * With virtual threads (spring.threads.virtual.enabled) the number of concurrent requests is no
+ * longer capped by Tomcat's 200 worker threads, so thousands of requests may want a connection at
+ * once. They queue on the semaphore rather than in Hikari, where each would otherwise fail after
+ * connection-timeout. Hikari's own pool metrics still apply (the wrapper unwraps to the pool).
+ * Disable with db.bulkhead.enabled=false.
+ */
+@Configuration
+public class DataSourceBulkheadConfig {
+
+    @Bean
+    static BeanPostProcessor dataSourceBulkheadPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof HikariDataSource hikari ? withBulkhead(hikari, environment) : bean;
+            }
+        };
+    }
+
+    /** Also used for pools that are not beans (read replicas). */
+    static DataSource withBulkhead(HikariDataSource hikari, Environment environment) {
+        if (!environment.getProperty("db.bulkhead.enabled", Boolean.class, true)) {
+            return hikari;
+        }
+        Duration maxWait = environment.getProperty("db.bulkhead.max-wait", Duration.class, Duration.ofSeconds(5));
+        return new BulkheadDataSource(hikari, hikari.getMaximumPoolSize(), maxWait);
+    }
+}
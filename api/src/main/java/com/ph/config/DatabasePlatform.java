@@ -0,0 +1,24 @@
+package com.ph.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.stereotype.Component;
+
+/**
+ * Identifies the configured database from the JDBC URL.
+ * Production runs on Postgres (Supabase); tests run on H2, so Postgres-only SQL
+ * (RETURNING, tsvector, LISTEN/NOTIFY, COPY, ...) needs a portable fallback behind this check.
+ */
+@Component
+public class DatabasePlatform {
+
+    private final DatabaseDriver driver;
+
+    public DatabasePlatform(@Value("${spring.datasource.url:}") String jdbcUrl) {
+        this.driver = DatabaseDriver.fromJdbcUrl(jdbcUrl);
+    }
+
+    public boolean isPostgres() {
+        return driver == DatabaseDriver.POSTGRESQL;
+    }
+}
@@ -0,0 +1,109 @@
+package com.ph.config;
+
+import com.ph.controllers.ProfileController;
+import com.ph.services.RecentWriters;
+import com.ph.services.TaskArchiveService;
+import com.ph.services.TaskService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Active when db.replicas.urls lists one or more read replicas (same credentials and pool settings as
+ * the primary). Replaces the auto-configured DataSource with a LazyConnectionDataSourceProxy over the
+ * primary: a connection is only fetched at the first statement, by which time the transaction is known
+ * to be read-only and {@link ReplicaDataSource} can pick the target. Writes always use the primary.
+ */
+@Configuration
+@ConditionalOnExpression("!'${db.replicas.urls:}'.isBlank()")
+public class ReadReplicaConfig {
+
+    /** Read-only transactions (by name: class, or class.method) that may be served by a replica. */
+    private static final List<String> ROUTED_TRANSACTIONS = List.of(
+            TaskService.class.getName(),
+            TaskArchiveService.class.getName() + ".getArchivePageForOwner",
+            ProfileController.class.getName() + ".getProfile");
+
+    /**
+     * Exceptions to the above that always read from the primary. TaskListCache keeps what getTasksForOwner
+     * loads for its whole TTL and nothing invalidates it again, so a lagging replica must not fill it; the
+     * list version is that cache's key and the list's ETag, so it and the pages it tags read there too.
+     * A body must never be older than its ETag (the client would keep it until the next change), so
+     * getTaskForOwner reads from the primary while the version its ETag comes from (getVersionForOwner)
+     * may lag: that only turns a later 304 into a 200.
+     */
+    private static final List<String> PRIMARY_ONLY_TRANSACTIONS = List.of(
+            TaskService.class.getName() + ".getTasksForOwner",
+            TaskService.class.getName() + ".getListVersion",
+            TaskService.class.getName() + ".getTaskPageForOwner",
+            TaskService.class.getName() + ".getTaskForOwner");
+
+    /** A replica that is down should fail fast, not hold the request for the primary's connection-timeout. */
+    private static final long REPLICA_CONNECTION_TIMEOUT_MS = 2_000;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaDataSource replicaDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                              @Value("${db.replicas.urls}") List<String> urls,
+                                              @Value("${db.replicas.max-lag:PT10S}") Duration maxLag,
+                                              DatabasePlatform databasePlatform,
+                                              RecentWriters recentWriters,
+                                              Environment environment) throws SQLException {
+        HikariDataSource primaryPool = primary.unwrap(HikariDataSource.class);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource pool = new HikariDataSource();
+            primaryPool.copyStateTo(pool);
+            String name = "replica-" + (replicas.size() + 1);
+            pool.setPoolName(name);
+            pool.setJdbcUrl(url.trim());
+            pool.setConnectionTimeout(Math.min(primaryPool.getConnectionTimeout(), REPLICA_CONNECTION_TIMEOUT_MS));
+            replicas.put(name, DataSourceBulkheadConfig.withBulkhead(pool, environment));
+        }
+        return new ReplicaDataSource(primary, replicas, ReadReplicaConfig::isRouted, recentWriters,
+                databasePlatform.isPostgres() ? maxLag : null);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(replicaDataSource);
+        return proxy;
+    }
+
+    static boolean isRouted(String transactionName) {
+        if (PRIMARY_ONLY_TRANSACTIONS.contains(transactionName)) {
+            return false;
+        }
+        for (String routed : ROUTED_TRANSACTIONS) {
+            if (transactionName.equals(routed) || transactionName.startsWith(routed + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
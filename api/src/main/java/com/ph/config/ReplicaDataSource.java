@@ -0,0 +1,147 @@
+package com.ph.config;
+
+import com.ph.services.RecentWriters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Read-only side of the routing set up in {@link ReadReplicaConfig}: LazyConnectionDataSourceProxy
+ * asks this for a connection when a read-only transaction issues its first statement.
+ * <p>
+ * The read goes to the next healthy replica (round robin) only if the transaction is one of the routed
+ * ones and the current user has not written within the read-your-writes window; otherwise, and when
+ * no replica is healthy or a replica refuses a connection, it goes to the primary.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Predicate<String> routedTransaction;
+    private final RecentWriters recentWriters;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param maxLag a replica further behind than this counts as unhealthy; null skips the lag query
+     *               (it is Postgres specific)
+     */
+    public ReplicaDataSource(DataSource primary,
+                             Map<String, DataSource> replicas,
+                             Predicate<String> routedTransaction,
+                             RecentWriters recentWriters,
+                             Duration maxLag) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream().map(e -> new Replica(e.getKey(), e.getValue())).toList();
+        this.routedTransaction = routedTransaction;
+        this.recentWriters = recentWriters;
+        this.maxLag = maxLag;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String transaction = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (transaction == null || !routedTransaction.test(transaction) || recentWriters.currentUserWroteRecently()) {
+            return primary.getConnection();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException ex) {
+                markUnhealthy(replica, ex.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /** Probes every replica; one that answers (and, on Postgres, is within maxLag) is put back in rotation. */
+    @Scheduled(fixedDelayString = "${db.replicas.health-check-interval:PT5S}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    markUnhealthy(replica, "connection not valid");
+                } else if (maxLag != null && lagMillis(connection) > maxLag.toMillis()) {
+                    markUnhealthy(replica, "replication lag above " + maxLag);
+                } else if (!replica.healthy) {
+                    replica.healthy = true;
+                    log.info("Read replica {} is healthy again", replica.name);
+                }
+            } catch (SQLException ex) {
+                markUnhealthy(replica, ex.getMessage());
+            }
+        }
+    }
+
+    /** Closes the replica pools; the primary belongs to the application context. */
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            try {
+                if (replica.dataSource.isWrapperFor(Closeable.class)) {
+                    replica.dataSource.unwrap(Closeable.class).close();
+                }
+            } catch (SQLException | IOException ex) {
+                log.warn("Could not close read replica {}: {}", replica.name, ex.getMessage());
+            }
+        }
+    }
+
+    /** Zero when the replica has replayed everything it received (an idle primary writes nothing new). */
+    private static long lagMillis(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("""
+                     SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                                 ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                            END""")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private void markUnhealthy(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Read replica {} taken out of rotation: {}", replica.name, reason);
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.ph.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled housekeeping jobs (e.g. tombstone pruning).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,9 +2,12 @@ package com.ph.config;
 
 import com.ph.security.JwtService;
 import com.ph.security.SupabaseJwtAuthenticationFilter;
+import com.ph.security.TokenRevocationList;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.security.config.Customizer;
@@ -18,6 +21,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.List;
@@ -38,8 +42,12 @@ public class SecurityConfig {
                 .exceptionHandling(handler -> handler.authenticationEntryPoint(restAuthenticationEntryPoint()))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // Async re-dispatch (e.g. an SSE stream completing) of a request that was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/public/**", "/static/**", "/assets/**").permitAll()
                         .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                        // Metrics only on the management port (managementSecurityFilterChain), never to API users
+                        .requestMatchers("/actuator/**").denyAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .anyRequest().authenticated()
@@ -49,9 +57,28 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Requests on management.server.port, which is reachable only from inside the cluster. They carry no user
+     * token; who may read metrics is decided by who can reach the port. When management shares the API port
+     * local.management.port is unset, nothing matches here, and the API chain refuses the endpoints instead.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain managementSecurityFilterChain(HttpSecurity http, Environment environment) throws Exception {
+        http
+                .securityMatcher(request -> String.valueOf(request.getLocalPort())
+                        .equals(environment.getProperty("local.management.port")))
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+
+        return http.build();
+    }
+
     @Bean
-    public SupabaseJwtAuthenticationFilter supabaseJwtAuthenticationFilter(JwtService jwtService) {
-        return new SupabaseJwtAuthenticationFilter(jwtService);
+    public SupabaseJwtAuthenticationFilter supabaseJwtAuthenticationFilter(JwtService jwtService,
+                                                                           TokenRevocationList revocationList) {
+        return new SupabaseJwtAuthenticationFilter(jwtService, revocationList);
     }
 
     /**
@@ -75,7 +102,8 @@ public class SecurityConfig {
         CorsConfiguration config = new CorsConfiguration();
         config.setAllowedOrigins(List.of(allowedOrigins.split(",")));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        config.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type"));
+        config.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type", "If-Match", "If-None-Match"));
+        config.setExposedHeaders(List.of("ETag", "Retry-After"));
         config.setAllowCredentials(true);
         config.setMaxAge(3600L);
 
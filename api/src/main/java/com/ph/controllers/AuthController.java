@@ -10,17 +10,24 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
 
+import com.ph.exception.ServiceUnavailableException;
+import com.ph.exception.TooManyRequestsException;
 import com.ph.services.AuthService;
+import com.ph.services.AuthTokens;
+import com.ph.services.RefreshTokenService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.time.Duration;
 import java.util.Map;
 
 /**
  * Authentication controller.
- * - POST /auth/login: username/password login -> sets HttpOnly cookie + returns access_token
- * - POST /auth/logout: clears cookie
- * - POST /auth/magic: forwards magic-link request to AuthService (optionally accepts redirect_to)
+ * - POST /auth/login: username/password login -> sets HttpOnly cookies + returns access_token and refresh_token
+ *   (429 with Retry-After when the client IP or email is over its attempt rate, 503 when password checks are saturated)
+ * - POST /auth/refresh: rotates a refresh token into a new token pair (401 if unknown, used or expired)
+ * - POST /auth/logout: revokes the refresh token and the access token (by jti) and clears both cookies
+ * - POST /auth/magic: queues a magic-link request (optionally accepts redirect_to) and returns 202
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -28,35 +35,40 @@ public class AuthController {
 
     private static final Logger log = LoggerFactory.getLogger(AuthController.class);
 
+    private static final String ACCESS_COOKIE = "tm_token";
+    private static final String REFRESH_COOKIE = "tm_refresh";
+    private static final String REFRESH_COOKIE_PATH = "/api/auth";
+
     private final AuthService authService;
+    private final Duration refreshTokenTtl;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, RefreshTokenService refreshTokenService) {
         this.authService = authService;
+        this.refreshTokenTtl = refreshTokenService.getTtl();
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody(required = false) LoginDto dto, HttpServletResponse response) {
+    public ResponseEntity<?> login(@RequestBody(required = false) LoginDto dto,
+                                   HttpServletRequest request,
+                                   HttpServletResponse response) {
         if (dto == null || isBlank(dto.getEmail()) || isBlank(dto.getPassword())) {
             return ResponseEntity.badRequest().body(Map.of("error", "email and password are required"));
         }
 
         try {
             String email = dto.getEmail().trim().toLowerCase();
-            String jwt = authService.authenticate(email, dto.getPassword());
-
-            ResponseCookie cookie = ResponseCookie.from("tm_token", jwt)
-                    .httpOnly(true)
-                    .secure(false) // set to true in production with HTTPS
-                    .path("/")
-                    .maxAge(Duration.ofHours(1))
-                    .sameSite("Lax")
-                    .build();
-
-            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
-
-            return ResponseEntity.ok(Map.of("access_token", jwt));
+            AuthTokens tokens = authService.authenticate(email, dto.getPassword(), request.getRemoteAddr());
+            return tokenResponse(tokens, response);
         } catch (BadCredentialsException ex) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
+        } catch (TooManyRequestsException ex) {
+            return ResponseEntity.status(429)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                    .body(Map.of("error", "Too many login attempts"));
+        } catch (ServiceUnavailableException ex) {
+            return ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "Login temporarily unavailable"));
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.badRequest().body(Map.of("error", "Invalid request", "message", ex.getMessage()));
         } catch (Exception ex) {
@@ -65,23 +77,42 @@ public class AuthController {
         }
     }
 
+    /**
+     * Exchanges a refresh token (JSON body { "refresh_token": "..." } or the tm_refresh cookie) for a new
+     * access token and refresh token. The presented token stops working; no password check is involved.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody(required = false) Map<String, String> body,
+                                     @CookieValue(name = REFRESH_COOKIE, required = false) String refreshCookie,
+                                     HttpServletResponse response) {
+        String refreshToken = body != null && !isBlank(body.get("refresh_token")) ? body.get("refresh_token") : refreshCookie;
+        if (isBlank(refreshToken)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "refresh_token is required"));
+        }
+
+        try {
+            return tokenResponse(authService.refresh(refreshToken.trim()), response);
+        } catch (BadCredentialsException ex) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid refresh token"));
+        }
+    }
+
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(HttpServletResponse response) {
-        ResponseCookie cookie = ResponseCookie.from("tm_token", "")
-                .httpOnly(true)
-                .secure(false)
-                .path("/")
-                .maxAge(Duration.ZERO)
-                .sameSite("Lax")
-                .build();
-        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    public ResponseEntity<?> logout(@CookieValue(name = REFRESH_COOKIE, required = false) String refreshCookie,
+                                    @CookieValue(name = ACCESS_COOKIE, required = false) String accessCookie,
+                                    @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+                                    HttpServletResponse response) {
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : accessCookie;
+        authService.logout(refreshCookie, accessToken);
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(ACCESS_COOKIE, "", "/", Duration.ZERO).toString());
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(REFRESH_COOKIE, "", REFRESH_COOKIE_PATH, Duration.ZERO).toString());
         return ResponseEntity.ok(Map.of("message", "Logged out"));
     }
 
     /**
      * Endpoint to request a Supabase magic link.
      * Accepts JSON body: { "email": "...", "redirect_to": "https://..." } (redirect_to optional).
-     * The controller forwards to AuthService; AuthService should forward redirect_to to Supabase if provided.
+     * The request is queued and answered with 202; the call to Supabase happens in the background.
      */
     @PostMapping("/magic")
     public ResponseEntity<?> sendMagicLink(@RequestBody Map<String, String> body) {
@@ -93,19 +124,12 @@ public class AuthController {
         String redirectTo = body.get("redirect_to"); // optional
 
         try {
-            if (redirectTo != null && !redirectTo.trim().isEmpty()) {
-                // forward with redirect if AuthService supports it
-                try {
-                    authService.sendMagicLink(email.trim().toLowerCase(), redirectTo.trim());
-                } catch (NoSuchMethodError | AbstractMethodError e) {
-                    // fallback if AuthService does not have the overload:
-                    log.warn("AuthService does not expose sendMagicLink(email, redirectTo); falling back to sendMagicLink(email)");
-                    authService.sendMagicLink(email.trim().toLowerCase());
-                }
-            } else {
-                authService.sendMagicLink(email.trim().toLowerCase());
-            }
-            return ResponseEntity.ok(Map.of("message", "Magic link sent"));
+            authService.sendMagicLink(email.trim().toLowerCase(), redirectTo != null ? redirectTo.trim() : null);
+            return ResponseEntity.accepted().body(Map.of("message", "Magic link requested"));
+        } catch (ServiceUnavailableException ex) {
+            return ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "Magic link temporarily unavailable"));
         } catch (Exception ex) {
             log.error("Magic link login failed for email {}", email, ex);
             String msg = ex.getMessage() != null ? ex.getMessage() : "Magic link login failed";
@@ -113,6 +137,25 @@ public class AuthController {
         }
     }
 
+    private ResponseEntity<?> tokenResponse(AuthTokens tokens, HttpServletResponse response) {
+        response.addHeader(HttpHeaders.SET_COOKIE,
+                cookie(ACCESS_COOKIE, tokens.accessToken(), "/", Duration.ofHours(1)).toString());
+        // Only sent to the auth endpoints, never with ordinary API calls
+        response.addHeader(HttpHeaders.SET_COOKIE,
+                cookie(REFRESH_COOKIE, tokens.refreshToken(), REFRESH_COOKIE_PATH, refreshTokenTtl).toString());
+        return ResponseEntity.ok(Map.of("access_token", tokens.accessToken(), "refresh_token", tokens.refreshToken()));
+    }
+
+    private static ResponseCookie cookie(String name, String value, String path, Duration maxAge) {
+        return ResponseCookie.from(name, value)
+                .httpOnly(true)
+                .secure(false) // set to true in production with HTTPS
+                .path(path)
+                .maxAge(maxAge)
+                .sameSite("Lax")
+                .build();
+    }
+
     private boolean isBlank(String s) {
         return s == null || s.trim().isEmpty();
     }
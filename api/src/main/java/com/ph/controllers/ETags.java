@@ -0,0 +1,56 @@
+package com.ph.controllers;
+
+import com.ph.exception.PreconditionFailedException;
+import com.ph.repositories.TaskListVersion;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Strong entity tags: single tasks use their version column, lists and profiles use updated_at
+ * values (microsecond precision, as stored).
+ * Used with WebRequest.checkNotModified so a matching If-None-Match is answered with 304
+ * before anything is loaded or serialized, and parsed back from If-Match for conditional writes.
+ */
+final class ETags {
+
+    private ETags() {}
+
+    static String of(OffsetDateTime updatedAt) {
+        return "\"" + micros(updatedAt) + "\"";
+    }
+
+    static String of(TaskListVersion version) {
+        long max = version.maxUpdatedAt() != null ? micros(version.maxUpdatedAt()) : 0;
+        return "\"" + version.count() + "-" + max + "\"";
+    }
+
+    static String ofVersion(long version) {
+        return "\"v" + version + "\"";
+    }
+
+    /**
+     * The version named by an If-Match header, or null when the header is absent or "*"
+     * (the owner-scoped write already requires the task to exist).
+     * Weak or foreign tags can never match a task version, so they fail the precondition.
+     */
+    static Long versionFromIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 3 && tag.startsWith("\"v") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(2, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // fall through
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not name a task version");
+    }
+
+    private static long micros(OffsetDateTime t) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, t.toInstant());
+    }
+}
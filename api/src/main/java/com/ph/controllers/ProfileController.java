@@ -3,15 +3,18 @@ package com.ph.controllers;
 import com.ph.dto.ProfileDto;
 import com.ph.model.Profile;
 import com.ph.repositories.ProfileRepository;
-import com.ph.security.JwtService;
+import com.ph.security.AuthenticatedUser;
+import com.ph.services.RecentWriters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -26,11 +29,11 @@ public class ProfileController {
     private static final Logger log = LoggerFactory.getLogger(ProfileController.class);
 
     private final ProfileRepository profileRepository;
-    private final JwtService jwtService;
+    private final RecentWriters recentWriters;
 
-    public ProfileController(ProfileRepository profileRepository, JwtService jwtService) {
+    public ProfileController(ProfileRepository profileRepository, RecentWriters recentWriters) {
         this.profileRepository = profileRepository;
-        this.jwtService = jwtService;
+        this.recentWriters = recentWriters;
     }
 
     /**
@@ -38,30 +41,9 @@ public class ProfileController {
      * Uses authenticated subject (UUID) as authoritative id.
      */
     @PostMapping("/sync")
-    public ResponseEntity<?> syncProfile(@RequestBody ProfileDto dto, Authentication authentication) {
-        if (authentication == null) {
-            log.warn("SyncProfile: Not authenticated");
-            return ResponseEntity.status(401).body("Not authenticated");
-        }
-
-        String subject;
-        try {
-            // This method handles either plain UUID principals or principals that contain a JWT.
-            subject = jwtService.getUserIdFromAuthentication(authentication);
-        } catch (IllegalArgumentException ex) {
-            log.error("SyncProfile: Could not resolve subject from authentication", ex);
-            return ResponseEntity.badRequest().body("Authenticated subject is not a valid UUID");
-        }
-
-        log.info("SyncProfile: Authenticated subject = {}", subject);
-
-        UUID uuid;
-        try {
-            uuid = UUID.fromString(subject);
-        } catch (IllegalArgumentException ex) {
-            log.error("SyncProfile: Invalid UUID from subject '{}'", subject, ex);
-            return ResponseEntity.badRequest().body("Authenticated subject is not a valid UUID");
-        }
+    public ResponseEntity<?> syncProfile(@RequestBody ProfileDto dto, AuthenticatedUser user) {
+        UUID uuid = user.id();
+        log.info("SyncProfile: Authenticated subject = {}", uuid);
 
         Profile profile = profileRepository.findById(uuid).orElseGet(Profile::new);
         profile.setId(uuid);
@@ -72,6 +54,7 @@ public class ProfileController {
         profile.setUpdatedAt(OffsetDateTime.now(ZoneOffset.UTC));
 
         Profile saved = profileRepository.save(profile);
+        recentWriters.recordWrite(uuid);
         return ResponseEntity.ok(saved);
     }
 
@@ -80,42 +63,31 @@ public class ProfileController {
      *
      * Endpoint: GET /api/profiles/{id}
      * For backwards compatibility this also supports id == "me" (resolves to authenticated user).
+     * Conditional: answers 304 to a matching If-None-Match (ETag from updated_at) without loading the profile.
+     * Both reads share one read-only transaction, which may be served by a read replica (ReadReplicaConfig).
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getProfile(@PathVariable String id, Authentication authentication) {
-        if (authentication == null) {
-            log.warn("GetProfile: Not authenticated");
-            return ResponseEntity.status(401).body("Not authenticated");
-        }
-
-        String authSubject;
-        try {
-            authSubject = jwtService.getUserIdFromAuthentication(authentication);
-        } catch (IllegalArgumentException ex) {
-            log.error("GetProfile: Could not resolve subject from authentication", ex);
-            return ResponseEntity.badRequest().body("Authenticated subject is not a valid UUID");
-        }
-
-        log.info("GetProfile: Authenticated subject = {}", authSubject);
-        log.info("GetProfile: Requested id = {}", id);
-
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getProfile(@PathVariable String id, AuthenticatedUser user, WebRequest request) {
         UUID uuid;
-        try {
-            if ("me".equalsIgnoreCase(id)) {
-                uuid = UUID.fromString(authSubject);
-                log.info("GetProfile: Using authenticated UUID = {}", uuid);
-            } else {
+        if ("me".equalsIgnoreCase(id)) {
+            uuid = user.id();
+        } else {
+            try {
                 uuid = UUID.fromString(id);
-                log.info("GetProfile: Parsed requested UUID = {}", uuid);
-
-                if (!uuid.toString().equals(authSubject)) {
-                    log.warn("GetProfile: Authenticated user does not match requested id");
-                    return ResponseEntity.status(403).body("Authenticated user does not match requested id");
-                }
+            } catch (IllegalArgumentException ex) {
+                log.warn("GetProfile: Invalid UUID '{}'", id);
+                return ResponseEntity.badRequest().body("Invalid UUID");
+            }
+            if (!uuid.equals(user.id())) {
+                log.warn("GetProfile: Authenticated user does not match requested id");
+                return ResponseEntity.status(403).body("Authenticated user does not match requested id");
             }
-        } catch (IllegalArgumentException ex) {
-            log.error("GetProfile: Invalid UUID", ex);
-            return ResponseEntity.badRequest().body("Invalid UUID");
+        }
+
+        Optional<OffsetDateTime> updatedAt = profileRepository.findUpdatedAt(uuid);
+        if (updatedAt.isPresent() && request.checkNotModified(ETags.of(updatedAt.get()))) {
+            return null;
         }
 
         return profileRepository.findById(uuid)
@@ -1,7 +1,7 @@
 package com.ph.controllers;
 
+import com.ph.security.AuthenticatedUser;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -9,8 +9,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class SecureController {
 
     @GetMapping("/api/secure")
-    public ResponseEntity<String> secureEndpoint(Authentication authentication) {
-        String username = authentication.getName(); // comes from Supabase JWT
+    public ResponseEntity<String> secureEndpoint(AuthenticatedUser user) {
+        String username = user.subject(); // comes from Supabase JWT
         return ResponseEntity.ok("Hello, " + username + "! You have accessed a secure endpoint.");
     }
 }
@@ -1,16 +1,48 @@
 package com.ph.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ph.dto.TaskBatchRequestDto;
+import com.ph.dto.TaskBatchResultDto;
+import com.ph.dto.TaskChangesDto;
 import com.ph.dto.TaskCreateDto;
 import com.ph.dto.TaskDto;
+import com.ph.dto.TaskImportResultDto;
+import com.ph.dto.TaskPageDto;
+import com.ph.dto.TaskStatsDto;
 import com.ph.exception.ResourceNotFoundException;
 import com.ph.model.Task;
+import com.ph.repositories.TaskListVersion;
+import com.ph.repositories.TaskPatch;
+import com.ph.services.TaskArchiveService;
+import com.ph.services.TaskEventBroadcaster;
+import com.ph.services.TaskImportService;
+import com.ph.services.TaskPage;
+import com.ph.services.TaskSearchService;
 import com.ph.services.TaskService;
-import com.ph.security.JwtService;
+import com.ph.services.TaskStatsService;
+import com.ph.services.TaskSyncService;
+import com.ph.security.AuthenticatedUser;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -19,21 +51,33 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/tasks")
 public class TaskController {
 
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("title", "description", "due_date");
+
     private final TaskService taskService;
-    private final JwtService jwtService;
+    private final TaskSyncService taskSyncService;
+    private final TaskSearchService taskSearchService;
+    private final TaskStatsService taskStatsService;
+    private final TaskEventBroadcaster taskEventBroadcaster;
+    private final TaskImportService taskImportService;
+    private final TaskArchiveService taskArchiveService;
+    private final ObjectMapper objectMapper;
 
-    public TaskController(TaskService taskService, JwtService jwtService) {
+    public TaskController(TaskService taskService,
+                          TaskSyncService taskSyncService,
+                          TaskSearchService taskSearchService,
+                          TaskStatsService taskStatsService,
+                          TaskEventBroadcaster taskEventBroadcaster,
+                          TaskImportService taskImportService,
+                          TaskArchiveService taskArchiveService,
+                          ObjectMapper objectMapper) {
         this.taskService = taskService;
-        this.jwtService = jwtService;
-    }
-
-    private UUID subjectToUuid(Authentication auth) {
-        if (auth == null || auth.getName() == null) {
-            throw new IllegalArgumentException("Missing authentication subject");
-        }
-        // Resolve subject (handles both plain UUID principals and principals that contain a JWT)
-        String subject = jwtService.getUserIdFromAuthentication(auth);
-        return UUID.fromString(subject);
+        this.taskSyncService = taskSyncService;
+        this.taskSearchService = taskSearchService;
+        this.taskStatsService = taskStatsService;
+        this.taskEventBroadcaster = taskEventBroadcaster;
+        this.taskImportService = taskImportService;
+        this.taskArchiveService = taskArchiveService;
+        this.objectMapper = objectMapper;
     }
 
     private TaskDto toDto(Task t) {
@@ -47,28 +91,210 @@ public class TaskController {
         return dto;
     }
 
+    private static TaskPatch toPatch(JsonNode body, String fields) {
+        if (body == null || !body.isObject()) {
+            throw new IllegalArgumentException("Patch body must be a JSON object");
+        }
+        Set<String> mask;
+        if (fields == null) {
+            mask = null;
+        } else {
+            mask = Arrays.stream(fields.split(",")).map(String::trim).filter(f -> !f.isEmpty())
+                    .collect(Collectors.toSet());
+            if (!PATCHABLE_FIELDS.containsAll(mask)) {
+                throw new IllegalArgumentException("Unknown field in mask");
+            }
+        }
+
+        boolean hasTitle = mask != null ? mask.contains("title") : body.has("title");
+        boolean hasDescription = mask != null ? mask.contains("description") : body.has("description");
+        boolean hasDueDate = mask != null ? mask.contains("due_date") : body.has("due_date");
+        LocalDate dueDate = null;
+        String dueDateText = textOrNull(body, "due_date");
+        if (hasDueDate && dueDateText != null) {
+            try {
+                dueDate = LocalDate.parse(dueDateText);
+            } catch (DateTimeException ex) {
+                throw new IllegalArgumentException("Invalid due_date");
+            }
+        }
+        return new TaskPatch(hasTitle, textOrNull(body, "title"),
+                hasDescription, textOrNull(body, "description"),
+                hasDueDate, dueDate);
+    }
+
+    private static String textOrNull(JsonNode body, String field) {
+        JsonNode value = body.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (!value.isTextual()) {
+            throw new IllegalArgumentException("Field " + field + " must be a string");
+        }
+        return value.asText();
+    }
+
     @PostMapping
     public ResponseEntity<TaskDto> createTask(@RequestBody TaskCreateDto createDto,
-                                              Authentication authentication) {
-        UUID ownerId = subjectToUuid(authentication);
+                                              AuthenticatedUser user) {
+        UUID ownerId = user.id();
         Task saved = taskService.createTask(ownerId, createDto);
-        return ResponseEntity.ok(toDto(saved));
+        return ResponseEntity.ok().eTag(ETags.ofVersion(saved.getVersion())).body(toDto(saved));
+    }
+
+    /**
+     * Applies a list of create/update/delete operations in one request and one transaction.
+     * Returns one result per operation, in request order.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<TaskBatchResultDto>> applyBatch(@RequestBody TaskBatchRequestDto request,
+                                                               AuthenticatedUser user) {
+        UUID ownerId = user.id();
+        return ResponseEntity.ok(taskService.applyBatch(ownerId, request.getOperations()));
     }
 
+    /**
+     * Lists the caller's tasks, newest first.
+     * Without paging parameters the full list is returned (legacy shape); passing limit and/or cursor
+     * switches to keyset pagination and returns a {@link TaskPageDto}.
+     * Conditional: a matching If-None-Match gets 304 after a single aggregate query.
+     */
     @GetMapping
-    public ResponseEntity<List<TaskDto>> listTasks(Authentication authentication) {
-        UUID ownerId = subjectToUuid(authentication);
-        List<TaskDto> tasks = taskService.getTasksForOwner(ownerId)
-                .stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(tasks);
+    public ResponseEntity<?> listTasks(@RequestParam(required = false) Integer limit,
+                                       @RequestParam(required = false) String cursor,
+                                       AuthenticatedUser user,
+                                       WebRequest request) {
+        UUID ownerId = user.id();
+        TaskListVersion version = taskService.getListVersion(ownerId);
+        if (request.checkNotModified(ETags.of(version))) {
+            return null;
+        }
+        if (limit != null || cursor != null) {
+            TaskPage page = taskService.getTaskPageForOwner(ownerId, cursor,
+                    limit != null ? limit : TaskService.DEFAULT_PAGE_SIZE);
+            TaskPageDto dto = new TaskPageDto();
+            dto.setItems(page.tasks());
+            dto.setNext_cursor(page.nextCursor());
+            return ResponseEntity.ok(dto);
+        }
+
+        return ResponseEntity.ok(taskService.getTasksForOwner(ownerId, version));
+    }
+
+    /**
+     * Archived tasks of the caller (not updated for tasks.archive.max-age), newest first, in keyset pages.
+     * They no longer appear in the task list, search, stats or sync.
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<TaskPageDto> listArchivedTasks(@RequestParam(defaultValue = "" + TaskService.DEFAULT_PAGE_SIZE) int limit,
+                                                         @RequestParam(required = false) String cursor,
+                                                         AuthenticatedUser user) {
+        UUID ownerId = user.id();
+        TaskPage page = taskArchiveService.getArchivePageForOwner(ownerId, cursor, limit);
+        TaskPageDto dto = new TaskPageDto();
+        dto.setItems(page.tasks());
+        dto.setNext_cursor(page.nextCursor());
+        return ResponseEntity.ok(dto);
+    }
+
+    /**
+     * Live feed of the caller's task changes as Server-Sent Events: "created", "updated" and "deleted"
+     * carry {"id": ...}; "reset" means events may have been missed and the client should resync
+     * (GET /api/tasks/changes). No database connection is held while the stream is open.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(AuthenticatedUser user, HttpServletResponse response) {
+        UUID ownerId = user.id();
+        // Stop reverse proxies (nginx) from buffering the stream.
+        response.setHeader("X-Accel-Buffering", "no");
+        return taskEventBroadcaster.subscribe(ownerId);
+    }
+
+    /**
+     * Dashboard counters for the caller. Date buckets use "today" in the optional IANA time zone (default UTC).
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<TaskStatsDto> getStats(@RequestParam(required = false) String tz,
+                                                 AuthenticatedUser user) {
+        UUID ownerId = user.id();
+        ZoneId zone;
+        try {
+            zone = tz == null || tz.isBlank() ? ZoneOffset.UTC : ZoneId.of(tz);
+        } catch (DateTimeException ex) {
+            throw new IllegalArgumentException("Invalid time zone");
+        }
+        return ResponseEntity.ok(taskStatsService.getStatsForOwner(ownerId, LocalDate.now(zone)));
+    }
+
+    /** Ranked full-text search over the caller's task titles and descriptions. */
+    @GetMapping("/search")
+    public ResponseEntity<List<TaskDto>> searchTasks(@RequestParam String q,
+                                                     @RequestParam(defaultValue = "" + TaskSearchService.DEFAULT_LIMIT) int limit,
+                                                     AuthenticatedUser user) {
+        UUID ownerId = user.id();
+        return ResponseEntity.ok(taskSearchService.search(ownerId, q, limit));
+    }
+
+    /**
+     * Delta sync: tasks created or updated and ids deleted since the token from the previous call.
+     * Without a token (or with one older than the tombstone retention) the full list is returned with reset=true.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<TaskChangesDto> getChanges(@RequestParam(required = false) String since,
+                                                     AuthenticatedUser user) {
+        UUID ownerId = user.id();
+        return ResponseEntity.ok(taskSyncService.getChangesForOwner(ownerId, since));
+    }
+
+    /**
+     * Streams all of the caller's tasks as NDJSON (default) or CSV.
+     * Rows are written to the response as they are read from the database cursor,
+     * so memory use does not depend on how many tasks the caller has.
+     */
+    @GetMapping("/export")
+    public void exportTasks(@RequestParam(defaultValue = TaskExportWriter.NDJSON) String format,
+                            AuthenticatedUser user,
+                            HttpServletResponse response) throws IOException {
+        UUID ownerId = user.id();
+        String normalized = format.trim().toLowerCase();
+        response.setContentType(TaskExportWriter.contentType(normalized));
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks." + normalized + "\"");
+
+        TaskExportWriter writer = TaskExportWriter.create(normalized, objectMapper, response.getOutputStream());
+        try {
+            taskService.exportTasksForOwner(ownerId, t -> {
+                try {
+                    writer.write(t);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        writer.finish();
+    }
+
+    /**
+     * Bulk import from a CSV upload (UTF-8, header row; see {@link TaskImportService#importCsv}).
+     * The body is read as it arrives; every task is created for the caller whatever the file says.
+     * Returns counts plus the line and reason of rejected rows. Over the tasks.import limits the whole upload
+     * is refused: 413 for size or rows, 408 for time, 503 when too many imports are running.
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<TaskImportResultDto> importTasks(AuthenticatedUser user,
+                                                           HttpServletRequest request) throws IOException {
+        UUID ownerId = user.id();
+        InputStreamReader csv = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+        return ResponseEntity.ok(taskImportService.importCsv(ownerId, csv));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<TaskDto> getTask(@PathVariable String id,
-                                           Authentication authentication) {
-        UUID ownerId = subjectToUuid(authentication);
+                                           AuthenticatedUser user,
+                                           WebRequest request) {
+        UUID ownerId = user.id();
         UUID taskId;
         try {
             taskId = UUID.fromString(id);
@@ -76,16 +302,48 @@ public class TaskController {
             throw new IllegalArgumentException("Invalid UUID format");
         }
 
-        Task task = taskService.getTaskForOwner(ownerId, taskId)
+        long version = taskService.getVersionForOwner(ownerId, taskId)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
-        return ResponseEntity.ok(toDto(task));
+        if (request.checkNotModified(ETags.ofVersion(version))) {
+            return null;
+        }
+
+        TaskDto task = taskService.getTaskForOwner(ownerId, taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task not found"));
+        return ResponseEntity.ok(task);
     }
 
+    /** Full update. With If-Match the write only happens if the task still has that version, else 412. */
     @PutMapping("/{id}")
     public ResponseEntity<TaskDto> updateTask(@PathVariable String id,
                                               @RequestBody TaskCreateDto dto,
-                                              Authentication authentication) {
-        UUID ownerId = subjectToUuid(authentication);
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              AuthenticatedUser user) {
+        UUID ownerId = user.id();
+        UUID taskId;
+        try {
+            taskId = UUID.fromString(id);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid UUID format");
+        }
+
+        Task updated = taskService.updateTaskForOwner(ownerId, taskId, dto, ETags.versionFromIfMatch(ifMatch))
+                .orElseThrow(() -> new ResourceNotFoundException("Task not found or not owned by user"));
+        return ResponseEntity.ok().eTag(ETags.ofVersion(updated.getVersion())).body(toDto(updated));
+    }
+
+    /**
+     * Partial update. Only the fields present in the JSON body are changed; with {@code fields=title,due_date}
+     * exactly the listed fields are written and a listed field missing from the body is cleared.
+     * A request that changes nothing returns the task without writing it. If-Match as for PUT.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<TaskDto> patchTask(@PathVariable String id,
+                                             @RequestParam(required = false) String fields,
+                                             @RequestBody JsonNode body,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             AuthenticatedUser user) {
+        UUID ownerId = user.id();
         UUID taskId;
         try {
             taskId = UUID.fromString(id);
@@ -93,15 +351,18 @@ public class TaskController {
             throw new IllegalArgumentException("Invalid UUID format");
         }
 
-        Task updated = taskService.updateTaskForOwner(ownerId, taskId, dto)
+        Task patched = taskService.patchTaskForOwner(ownerId, taskId, toPatch(body, fields),
+                        ETags.versionFromIfMatch(ifMatch))
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found or not owned by user"));
-        return ResponseEntity.ok(toDto(updated));
+        return ResponseEntity.ok().eTag(ETags.ofVersion(patched.getVersion())).body(toDto(patched));
     }
 
+    /** If-Match as for PUT. */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTask(@PathVariable String id,
-                                           Authentication authentication) {
-        UUID ownerId = subjectToUuid(authentication);
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           AuthenticatedUser user) {
+        UUID ownerId = user.id();
         UUID taskId;
         try {
             taskId = UUID.fromString(id);
@@ -109,7 +370,7 @@ public class TaskController {
             throw new IllegalArgumentException("Invalid UUID format");
         }
 
-        boolean deleted = taskService.deleteTaskForOwner(ownerId, taskId);
+        boolean deleted = taskService.deleteTaskForOwner(ownerId, taskId, ETags.versionFromIfMatch(ifMatch));
         if (!deleted) throw new ResourceNotFoundException("Task not found or not owned by user");
         return ResponseEntity.noContent().build();
     }
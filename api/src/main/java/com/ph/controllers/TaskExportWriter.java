@@ -0,0 +1,112 @@
+package com.ph.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ph.dto.TaskDto;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Row-at-a-time serializer for task exports. Nothing is accumulated between rows;
+ * output goes through a small buffer straight to the response stream.
+ */
+abstract class TaskExportWriter {
+
+    static final String NDJSON = "ndjson";
+    static final String CSV = "csv";
+
+    abstract void write(TaskDto task) throws IOException;
+
+    abstract void finish() throws IOException;
+
+    static String contentType(String format) {
+        return switch (format) {
+            case NDJSON -> "application/x-ndjson";
+            case CSV -> "text/csv";
+            default -> throw new IllegalArgumentException("Unsupported export format");
+        };
+    }
+
+    static TaskExportWriter create(String format, ObjectMapper objectMapper, OutputStream out) throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonWriter(objectMapper, out);
+            case CSV -> new CsvWriter(out);
+            default -> throw new IllegalArgumentException("Unsupported export format");
+        };
+    }
+
+    /** One JSON object per line. */
+    private static final class NdjsonWriter extends TaskExportWriter {
+        private final ObjectWriter objectWriter;
+        private final JsonGenerator generator;
+
+        NdjsonWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+            // Flushing after every value would turn each row into its own network write.
+            this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(TaskDto task) throws IOException {
+            objectWriter.writeValue(generator, task);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /** RFC 4180 CSV with a header row. */
+    private static final class CsvWriter extends TaskExportWriter {
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.writer.write("id,title,description,due_date,created_at,updated_at\r\n");
+        }
+
+        @Override
+        void write(TaskDto task) throws IOException {
+            writer.write(String.valueOf(task.getId()));
+            writer.write(',');
+            writeField(task.getTitle());
+            writer.write(',');
+            writeField(task.getDescription());
+            writer.write(',');
+            writeField(task.getDue_date() != null ? task.getDue_date().toString() : null);
+            writer.write(',');
+            writeField(task.getCreated_at() != null ? task.getCreated_at().toString() : null);
+            writer.write(',');
+            writeField(task.getUpdated_at() != null ? task.getUpdated_at().toString() : null);
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) return;
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ph.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/*
+ * One operation inside POST /api/tasks/batch.
+ * op is "create", "update" or "delete"; id is required for update/delete, task for create/update.
+ */
+@Setter
+@Getter
+public class TaskBatchOperationDto {
+    private String op;
+    private UUID id;
+    private TaskCreateDto task;
+
+}
@@ -0,0 +1,16 @@
+package com.ph.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/*
+ * DTO used for bulk task mutations; operations are applied in order, in one transaction.
+ */
+@Setter
+@Getter
+public class TaskBatchRequestDto {
+    private List<TaskBatchOperationDto> operations;
+
+}
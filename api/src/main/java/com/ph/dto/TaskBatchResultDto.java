@@ -0,0 +1,25 @@
+package com.ph.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/*
+ * Outcome of one batch operation, reported at the same index as the request.
+ * status follows the single-task endpoints: 201 created, 200 updated, 204 deleted, 400 invalid, 404 not found.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBatchResultDto {
+    private int index;
+    private String op;
+    private UUID id;
+    private int status;
+    private String error;
+
+}
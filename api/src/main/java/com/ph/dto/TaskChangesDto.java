@@ -0,0 +1,22 @@
+package com.ph.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * DTO returned by GET /api/tasks/changes.
+ * When reset is true, changed holds the complete list and the client should replace its copy;
+ * otherwise it upserts changed and removes deleted. next_token is passed back as ?since=.
+ */
+@Setter
+@Getter
+public class TaskChangesDto {
+    private List<TaskDto> changed;
+    private List<UUID> deleted;
+    private String next_token;
+    private boolean reset;
+
+}
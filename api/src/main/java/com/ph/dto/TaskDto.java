@@ -1,6 +1,8 @@
 package com.ph.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.OffsetDateTime;
@@ -9,9 +11,12 @@ import java.util.UUID;
 
 /*
  * DTO returned to client for tasks.
+ * The all-args constructor doubles as the JPQL constructor expression used by the read-only projections.
  */
 @Setter
 @Getter
+@NoArgsConstructor
+@AllArgsConstructor
 public class TaskDto {
     private UUID id;
     private String title;
@@ -0,0 +1,19 @@
+package com.ph.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * One rejected import row. line is the 1-based line of the CSV on which the row starts.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskImportErrorDto {
+    private long line;
+    private String error;
+
+}
@@ -0,0 +1,22 @@
+package com.ph.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Report returned by POST /api/tasks/import.
+ * Rows that fail validation are skipped and counted in rejected; the first of them are listed in errors
+ * (errors_truncated tells whether there were more).
+ */
+@Setter
+@Getter
+public class TaskImportResultDto {
+    private long imported;
+    private long rejected;
+    private List<TaskImportErrorDto> errors = new ArrayList<>();
+    private boolean errors_truncated;
+
+}
@@ -0,0 +1,18 @@
+package com.ph.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/*
+ * DTO returned to client for a page of tasks.
+ * next_cursor is passed back as ?cursor= to fetch the following page; null when there are no more tasks.
+ */
+@Setter
+@Getter
+public class TaskPageDto {
+    private List<TaskDto> items;
+    private String next_cursor;
+
+}
@@ -0,0 +1,24 @@
+package com.ph.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * DTO returned by GET /api/tasks/stats.
+ * Buckets are relative to "today" in the requested time zone; due_this_week counts tasks due after today
+ * up to and including Sunday of the current ISO week.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskStatsDto {
+    private long total;
+    private long overdue;
+    private long due_today;
+    private long due_this_week;
+    private long no_due_date;
+
+}
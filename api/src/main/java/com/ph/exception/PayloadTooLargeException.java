@@ -0,0 +1,6 @@
+package com.ph.exception;
+
+/** Thrown when an upload exceeds a configured size or row limit. */
+public class PayloadTooLargeException extends RuntimeException {
+    public PayloadTooLargeException(String message) { super(message); }
+}
@@ -0,0 +1,6 @@
+package com.ph.exception;
+
+/** Thrown when an If-Match precondition does not hold, i.e. the resource was changed concurrently. */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) { super(message); }
+}
@@ -0,0 +1,6 @@
+package com.ph.exception;
+
+/** Thrown when a client takes longer than allowed to send its request body. */
+public class RequestTimeoutException extends RuntimeException {
+    public RequestTimeoutException(String message) { super(message); }
+}
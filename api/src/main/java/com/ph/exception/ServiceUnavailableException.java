@@ -0,0 +1,6 @@
+package com.ph.exception;
+
+/** Thrown when the node is at capacity for a request; the client should retry later. */
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) { super(message); }
+}
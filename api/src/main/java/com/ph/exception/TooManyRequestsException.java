@@ -0,0 +1,13 @@
+package com.ph.exception;
+
+/** Thrown when a client exceeds a rate limit; retryAfterSeconds tells it when to try again. */
+public class TooManyRequestsException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
@@ -0,0 +1,54 @@
+package com.ph.model;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/*
+ * Refresh token, stored by digest only; written and consumed by RefreshTokenService. Used tokens are kept
+ * (used_at set) until they expire so that presenting one again revokes its family.
+ */
+@Entity
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+
+    @Id
+    @Column(name = "token_hash", columnDefinition = "uuid")
+    private UUID tokenHash;
+
+    @Column(name = "user_id", columnDefinition = "uuid", nullable = false)
+    private UUID userId;
+
+    @Column(name = "family_id", columnDefinition = "uuid", nullable = false)
+    private UUID familyId;
+
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    @Column(name = "session_expires_at", nullable = false)
+    private OffsetDateTime sessionExpiresAt;
+
+    @Column(name = "used_at")
+    private OffsetDateTime usedAt;
+
+    public RefreshToken() {}
+
+    // Getters & setters
+    public UUID getTokenHash() { return tokenHash; }
+    public void setTokenHash(UUID tokenHash) { this.tokenHash = tokenHash; }
+
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+
+    public UUID getFamilyId() { return familyId; }
+    public void setFamilyId(UUID familyId) { this.familyId = familyId; }
+
+    public OffsetDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(OffsetDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public OffsetDateTime getSessionExpiresAt() { return sessionExpiresAt; }
+    public void setSessionExpiresAt(OffsetDateTime sessionExpiresAt) { this.sessionExpiresAt = sessionExpiresAt; }
+
+    public OffsetDateTime getUsedAt() { return usedAt; }
+    public void setUsedAt(OffsetDateTime usedAt) { this.usedAt = usedAt; }
+}
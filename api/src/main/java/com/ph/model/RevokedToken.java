@@ -0,0 +1,28 @@
+package com.ph.model;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/*
+ * Access token revoked before its expiry; written and reloaded by TokenRevocationService.
+ */
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    @Column(name = "jti")
+    private String jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    public RevokedToken() {}
+
+    // Getters & setters
+    public String getJti() { return jti; }
+    public void setJti(String jti) { this.jti = jti; }
+
+    public OffsetDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(OffsetDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
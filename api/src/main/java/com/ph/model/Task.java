@@ -34,6 +34,11 @@ public class Task {
     @Column(name = "updated_at", nullable = false)
     private OffsetDateTime updatedAt;
 
+    // Bumped by every write; exposed to clients as the task's ETag.
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     public Task() {}
 
     public Task(UUID id, UUID ownerId, String title, String description, LocalDate dueDate, OffsetDateTime createdAt, OffsetDateTime updatedAt) {
@@ -79,4 +84,7 @@ public class Task {
 
     public OffsetDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(OffsetDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
@@ -0,0 +1,41 @@
+package com.ph.model;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/*
+ * Record of a deleted task, kept for delta sync until the retention window passes.
+ */
+@Entity
+@Table(name = "task_tombstones")
+public class TaskTombstone {
+
+    @Id
+    @Column(name = "task_id", columnDefinition = "uuid")
+    private UUID taskId;
+
+    @Column(name = "owner_id", columnDefinition = "uuid", nullable = false)
+    private UUID ownerId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private OffsetDateTime deletedAt;
+
+    public TaskTombstone() {}
+
+    public TaskTombstone(UUID taskId, UUID ownerId, OffsetDateTime deletedAt) {
+        this.taskId = taskId;
+        this.ownerId = ownerId;
+        this.deletedAt = deletedAt;
+    }
+
+    // Getters & setters
+    public UUID getTaskId() { return taskId; }
+    public void setTaskId(UUID taskId) { this.taskId = taskId; }
+
+    public UUID getOwnerId() { return ownerId; }
+    public void setOwnerId(UUID ownerId) { this.ownerId = ownerId; }
+
+    public OffsetDateTime getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(OffsetDateTime deletedAt) { this.deletedAt = deletedAt; }
+}
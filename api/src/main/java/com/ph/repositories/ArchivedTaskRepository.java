@@ -0,0 +1,33 @@
+package com.ph.repositories;
+
+import com.ph.dto.TaskDto;
+import com.ph.model.ArchivedTask;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, UUID> {
+
+    String SELECT_DTO = "select new com.ph.dto.TaskDto(a.id, a.title, a.description, a.dueDate, a.createdAt, a.updatedAt)"
+            + " from ArchivedTask a";
+
+    /** First keyset page; ordering matches idx_task_archive_owner_created_at_id. */
+    @Query(SELECT_DTO + " where a.ownerId = :ownerId order by a.createdAt desc, a.id asc")
+    List<TaskDto> findDtoFirstPage(@Param("ownerId") UUID ownerId, Limit limit);
+
+    /** Keyset page strictly after the (createdAt, id) position of the previous page's last task. */
+    @Query(SELECT_DTO + " where a.ownerId = :ownerId"
+            + " and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id > :id))"
+            + " order by a.createdAt desc, a.id asc")
+    List<TaskDto> findDtoPageAfter(@Param("ownerId") UUID ownerId,
+                                   @Param("createdAt") OffsetDateTime createdAt,
+                                   @Param("id") UUID id,
+                                   Limit limit);
+}
@@ -2,8 +2,12 @@ package com.ph.repositories;
 
 import com.ph.model.Profile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -11,5 +15,8 @@ import java.util.UUID;
  */
 @Repository
 public interface ProfileRepository extends JpaRepository<Profile, UUID> {
-    // default JPA methods are sufficient
+
+    /** Empty when the profile does not exist or has never been stamped with updated_at. */
+    @Query("select p.updatedAt from Profile p where p.id = :id")
+    Optional<OffsetDateTime> findUpdatedAt(@Param("id") UUID id);
 }
@@ -0,0 +1,10 @@
+package com.ph.repositories;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Cheap fingerprint of an owner's task list: any create, update or delete changes the row count
+ * or the newest updated_at. maxUpdatedAt is null when the owner has no tasks.
+ */
+public record TaskListVersion(Long count, OffsetDateTime maxUpdatedAt) {
+}
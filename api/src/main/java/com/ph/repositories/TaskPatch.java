@@ -0,0 +1,16 @@
+package com.ph.repositories;
+
+import java.time.LocalDate;
+
+/**
+ * Partial task update: only fields flagged as present are written; an absent field keeps its
+ * stored value, while a present null clears it (description, due_date).
+ */
+public record TaskPatch(boolean hasTitle, String title,
+                        boolean hasDescription, String description,
+                        boolean hasDueDate, LocalDate dueDate) {
+
+    public boolean isEmpty() {
+        return !hasTitle && !hasDescription && !hasDueDate;
+    }
+}
@@ -1,13 +1,81 @@
 package com.ph.repositories;
 
+import com.ph.dto.TaskDto;
 import com.ph.model.Task;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, UUID> {
-    List<Task> findByOwnerIdOrderByCreatedAtDesc(UUID ownerId);
+public interface TaskRepository extends JpaRepository<Task, UUID>, TaskRepositoryCustom {
+
+    String SELECT_DTO = "select new com.ph.dto.TaskDto(t.id, t.title, t.description, t.dueDate, t.createdAt, t.updatedAt)"
+            + " from Task t";
+
+    /**
+     * Single-statement owner-scoped delete; returns the number of rows removed (0 or 1).
+     * With a non-null expectedVersion the row is only removed while it still has that version.
+     */
+    @Modifying
+    @Query("delete from Task t where t.id = :id and t.ownerId = :ownerId"
+            + " and (:expectedVersion is null or t.version = :expectedVersion)")
+    int deleteOwned(@Param("ownerId") UUID ownerId, @Param("id") UUID id,
+                    @Param("expectedVersion") Long expectedVersion);
+
+    Optional<Task> findByIdAndOwnerId(UUID id, UUID ownerId);
+
+    List<Task> findByOwnerIdAndIdIn(UUID ownerId, Collection<UUID> ids);
+
+    /** Computed in SQL so a conditional GET can be answered without reading any task rows. */
+    @Query("select new com.ph.repositories.TaskListVersion(count(t), max(t.updatedAt)) from Task t where t.ownerId = :ownerId")
+    TaskListVersion findListVersion(@Param("ownerId") UUID ownerId);
+
+    @Query("select t.version from Task t where t.id = :id and t.ownerId = :ownerId")
+    Optional<Long> findVersion(@Param("id") UUID id, @Param("ownerId") UUID ownerId);
+
+    /** Full list projected straight into the response shape; no entities are hydrated. */
+    @Query(SELECT_DTO + " where t.ownerId = :ownerId order by t.createdAt desc, t.id asc")
+    List<TaskDto> findDtosByOwnerId(@Param("ownerId") UUID ownerId);
+
+    /** Delta sync; served by idx_tasks_owner_updated_at. */
+    @Query(SELECT_DTO + " where t.ownerId = :ownerId and t.updatedAt > :since order by t.updatedAt asc")
+    List<TaskDto> findDtosChangedSince(@Param("ownerId") UUID ownerId, @Param("since") OffsetDateTime since);
+
+    @Query(SELECT_DTO + " where t.id = :id and t.ownerId = :ownerId")
+    Optional<TaskDto> findDtoByIdAndOwnerId(@Param("id") UUID id, @Param("ownerId") UUID ownerId);
+
+    /** First keyset page; ordering matches idx_tasks_owner_created_at_id. */
+    @Query(SELECT_DTO + " where t.ownerId = :ownerId order by t.createdAt desc, t.id asc")
+    List<TaskDto> findDtoFirstPage(@Param("ownerId") UUID ownerId, Limit limit);
+
+    /** Keyset page strictly after the (createdAt, id) position of the previous page's last task. */
+    @Query(SELECT_DTO + " where t.ownerId = :ownerId"
+            + " and (t.createdAt < :createdAt or (t.createdAt = :createdAt and t.id > :id))"
+            + " order by t.createdAt desc, t.id asc")
+    List<TaskDto> findDtoPageAfter(@Param("ownerId") UUID ownerId,
+                                   @Param("createdAt") OffsetDateTime createdAt,
+                                   @Param("id") UUID id,
+                                   Limit limit);
+
+    /**
+     * Forward-only cursor over all of an owner's tasks for export.
+     * The fetch size keeps the driver from buffering the whole result set; must be consumed
+     * (and closed) inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_DTO + " where t.ownerId = :ownerId order by t.createdAt desc, t.id asc")
+    Stream<TaskDto> streamDtosByOwnerId(@Param("ownerId") UUID ownerId);
 }
@@ -0,0 +1,30 @@
+package com.ph.repositories;
+
+import com.ph.model.Task;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Owner-scoped task mutations that need hand-written SQL.
+ */
+public interface TaskRepositoryCustom {
+
+    /**
+     * Overwrites title, description and due date of the task if, and only if, it belongs to the owner
+     * and, when expectedVersion is non-null, still has that version. Bumps the version.
+     * One statement on Postgres (UPDATE ... RETURNING); empty when no row matched.
+     */
+    Optional<Task> updateOwned(UUID ownerId, UUID taskId, String title, String description,
+                               LocalDate dueDate, OffsetDateTime updatedAt, Long expectedVersion);
+
+    /**
+     * Writes only the fields present in the patch, and only if at least one of them differs from the
+     * stored value, and (with a non-null expectedVersion) the row still has that version. Bumps the version.
+     * Empty when nothing was written: no such owned task, version mismatch, or the patch changes nothing.
+     */
+    Optional<Task> patchOwned(UUID ownerId, UUID taskId, TaskPatch patch, OffsetDateTime updatedAt,
+                              Long expectedVersion);
+}
@@ -0,0 +1,178 @@
+package com.ph.repositories;
+
+import com.ph.config.DatabasePlatform;
+import com.ph.model.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.Hibernate;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Implementation of {@link TaskRepositoryCustom}.
+ * The owner check is part of the WHERE clause, so a task owned by someone else is never loaded.
+ * <p>
+ * The Postgres branches (one UPDATE ... RETURNING round trip) run only against Postgres, i.e. in
+ * production; the H2 test profile exercises the portable fallback, which is an update plus one select.
+ */
+class TaskRepositoryImpl implements TaskRepositoryCustom {
+
+    private static final String UPDATE =
+            "UPDATE public.tasks SET title = :title, description = :description, due_date = :dueDate,"
+                    + " updated_at = :updatedAt, version = version + 1"
+                    + " WHERE id = :id AND owner_id = :ownerId";
+
+    private static final String RETURNING =
+            " RETURNING id, owner_id, title, description, due_date, created_at, updated_at, version";
+
+    private final EntityManager entityManager;
+    private final DatabasePlatform databasePlatform;
+
+    TaskRepositoryImpl(EntityManager entityManager, DatabasePlatform databasePlatform) {
+        this.entityManager = entityManager;
+        this.databasePlatform = databasePlatform;
+    }
+
+    @Override
+    public Optional<Task> updateOwned(UUID ownerId, UUID taskId, String title, String description,
+                                      LocalDate dueDate, OffsetDateTime updatedAt, Long expectedVersion) {
+        if (databasePlatform.isPostgres()) {
+            @SuppressWarnings("unchecked")
+            NativeQuery<Task> query = entityManager.createNativeQuery(
+                            UPDATE + versionCheck(expectedVersion, "version") + RETURNING, Task.class)
+                    .unwrap(NativeQuery.class);
+            bindVersion(query, expectedVersion);
+            List<Task> rows = query
+                    .addSynchronizedEntityClass(Task.class)
+                    .setParameter("title", title, StandardBasicTypes.STRING)
+                    .setParameter("description", description, StandardBasicTypes.STRING)
+                    .setParameter("dueDate", dueDate, StandardBasicTypes.LOCAL_DATE)
+                    .setParameter("updatedAt", updatedAt, StandardBasicTypes.OFFSET_DATE_TIME)
+                    .setParameter("id", taskId)
+                    .setParameter("ownerId", ownerId)
+                    .getResultList();
+            return rows.stream().findFirst();
+        }
+
+        // Portable fallback (H2 has no RETURNING): conditional update, then read the row back.
+        var update = entityManager.createQuery("update Task t set t.title = :title, t.description = :description,"
+                + " t.dueDate = :dueDate, t.updatedAt = :updatedAt, t.version = t.version + 1"
+                + " where t.id = :id and t.ownerId = :ownerId" + versionCheck(expectedVersion, "t.version"));
+        bindVersion(update, expectedVersion);
+        int updated = update
+                .setParameter("title", title)
+                .setParameter("description", description)
+                .setParameter("dueDate", dueDate)
+                .setParameter("updatedAt", updatedAt)
+                .setParameter("id", taskId)
+                .setParameter("ownerId", ownerId)
+                .executeUpdate();
+        return updated == 0 ? Optional.empty() : Optional.of(reload(taskId));
+    }
+
+    @Override
+    public Optional<Task> patchOwned(UUID ownerId, UUID taskId, TaskPatch patch, OffsetDateTime updatedAt,
+                                     Long expectedVersion) {
+        if (patch.isEmpty()) {
+            return Optional.empty();
+        }
+        // Only present columns go into SET; the IS DISTINCT FROM guard turns a no-op patch into a
+        // statement that matches no row, so unchanged requests never write a new row version.
+        List<PatchColumn> columns = new ArrayList<>(3);
+        if (patch.hasTitle()) columns.add(new PatchColumn("title", "t.title", "title"));
+        if (patch.hasDescription()) columns.add(new PatchColumn("description", "t.description", "description"));
+        if (patch.hasDueDate()) columns.add(new PatchColumn("due_date", "t.dueDate", "dueDate"));
+
+        if (databasePlatform.isPostgres()) {
+            @SuppressWarnings("unchecked")
+            NativeQuery<Task> query = entityManager.createNativeQuery("UPDATE public.tasks SET "
+                            + assignments(columns, PatchColumn::sql, "updated_at", "version")
+                            + " WHERE id = :id AND owner_id = :ownerId AND " + changedGuard(columns, PatchColumn::sql)
+                            + versionCheck(expectedVersion, "version") + RETURNING, Task.class)
+                    .unwrap(NativeQuery.class);
+            query.addSynchronizedEntityClass(Task.class);
+            bindVersion(query, expectedVersion);
+            if (patch.hasTitle()) query.setParameter("title", patch.title(), StandardBasicTypes.STRING);
+            if (patch.hasDescription()) query.setParameter("description", patch.description(), StandardBasicTypes.STRING);
+            if (patch.hasDueDate()) query.setParameter("dueDate", patch.dueDate(), StandardBasicTypes.LOCAL_DATE);
+            List<Task> rows = query
+                    .setParameter("updatedAt", updatedAt, StandardBasicTypes.OFFSET_DATE_TIME)
+                    .setParameter("id", taskId)
+                    .setParameter("ownerId", ownerId)
+                    .getResultList();
+            return rows.stream().findFirst();
+        }
+
+        // Portable fallback: same dynamic statement in HQL, then read the row back.
+        var update = entityManager.createQuery("update Task t set "
+                + assignments(columns, PatchColumn::hql, "t.updatedAt", "t.version")
+                + " where t.id = :id and t.ownerId = :ownerId and " + changedGuard(columns, PatchColumn::hql)
+                + versionCheck(expectedVersion, "t.version"));
+        bindVersion(update, expectedVersion);
+        if (patch.hasTitle()) update.setParameter("title", patch.title());
+        if (patch.hasDescription()) update.setParameter("description", patch.description());
+        if (patch.hasDueDate()) update.setParameter("dueDate", patch.dueDate());
+        int updated = update
+                .setParameter("updatedAt", updatedAt)
+                .setParameter("id", taskId)
+                .setParameter("ownerId", ownerId)
+                .executeUpdate();
+        return updated == 0 ? Optional.empty() : Optional.of(reload(taskId));
+    }
+
+    /**
+     * The row as the bulk update left it, in one select. A bulk update bypasses the persistence context, so a
+     * copy already managed in this transaction is refreshed; otherwise the row is loaded for the first time.
+     */
+    private Task reload(UUID taskId) {
+        Task task = entityManager.getReference(Task.class, taskId);
+        if (Hibernate.isInitialized(task)) {
+            entityManager.refresh(task);
+            return task;
+        }
+        return Hibernate.unproxy(task, Task.class);
+    }
+
+    /** {@code col = :param, ..., updated_at = :updatedAt, version = version + 1} */
+    private static String assignments(List<PatchColumn> columns, Function<PatchColumn, String> name,
+                                      String updatedAt, String version) {
+        StringBuilder sql = new StringBuilder();
+        for (PatchColumn column : columns) {
+            sql.append(name.apply(column)).append(" = :").append(column.param()).append(", ");
+        }
+        return sql.append(updatedAt).append(" = :updatedAt, ")
+                .append(version).append(" = ").append(version).append(" + 1").toString();
+    }
+
+    private static String versionCheck(Long expectedVersion, String version) {
+        return expectedVersion == null ? "" : " AND " + version + " = :expectedVersion";
+    }
+
+    private static void bindVersion(Query query, Long expectedVersion) {
+        if (expectedVersion != null) {
+            query.setParameter("expectedVersion", expectedVersion);
+        }
+    }
+
+    /** {@code (col IS DISTINCT FROM :param OR ...)} */
+    private static String changedGuard(List<PatchColumn> columns, Function<PatchColumn, String> name) {
+        StringJoiner sql = new StringJoiner(" OR ", "(", ")");
+        for (PatchColumn column : columns) {
+            sql.add(name.apply(column) + " IS DISTINCT FROM :" + column.param());
+        }
+        return sql.toString();
+    }
+
+    /** A patchable column: its SQL name, its HQL path, and the bind parameter name. */
+    private record PatchColumn(String sql, String hql, String param) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.ph.repositories;
+
+import com.ph.model.TaskTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TaskTombstoneRepository extends JpaRepository<TaskTombstone, UUID> {
+
+    @Query("select tt.taskId from TaskTombstone tt where tt.ownerId = :ownerId and tt.deletedAt > :since")
+    List<UUID> findDeletedTaskIdsSince(@Param("ownerId") UUID ownerId, @Param("since") OffsetDateTime since);
+
+    @Modifying
+    @Query("delete from TaskTombstone tt where tt.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") OffsetDateTime cutoff);
+}
@@ -0,0 +1,22 @@
+package com.ph.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.util.UUID;
+
+/**
+ * Principal set by {@link SupabaseJwtAuthenticationFilter}: the verified claims of the request's token and
+ * the subject already parsed as the user's UUID. Controllers take it as a handler argument
+ * ({@link AuthenticatedUserArgumentResolver}) instead of re-deriving the id from the Authentication.
+ * getName() is the subject, so Authentication.getName() keeps returning the user id. It is deliberately not a
+ * java.security.Principal: MVC resolves Principal-typed arguments from request.getUserPrincipal() (the
+ * Authentication) before any custom resolver is asked.
+ */
+public record AuthenticatedUser(UUID id, String subject, Claims claims) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return subject;
+    }
+}
@@ -0,0 +1,55 @@
+package com.ph.security;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, thread-safe bloom filter over strings. Bits are a power-of-two sized AtomicLongArray; the
+ * probe positions come from one seeded 64-bit hash split into two halves (Kirsch-Mitzenmacher), so a lookup
+ * is one pass over the key plus a few word reads. Entries cannot be removed: rebuild to drop them.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long mask;
+    private final int hashes;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+
+    /** Sized for the expected number of entries at the given false-positive rate. */
+    BloomFilter(int expectedEntries, double falsePositiveRate) {
+        if (expectedEntries < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("expectedEntries must be positive and falsePositiveRate in (0, 1)");
+        }
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+        long bits = Math.max(64, Long.highestOneBit(optimalBits - 1) << 1);
+        this.words = new AtomicLongArray(Math.toIntExact(bits >>> 6));
+        this.mask = bits - 1;
+        this.hashes = Math.min(16, Math.max(1, (int) Math.round((double) bits / expectedEntries * ln2)));
+    }
+
+    void add(String key) {
+        long h = SeededHash.hash(seed, key);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = (h1 + (long) i * h2) & mask;
+            long word = 1L << bit;
+            words.accumulateAndGet((int) (bit >>> 6), word, (a, b) -> a | b);
+        }
+    }
+
+    /** False means the key was never added; true means it probably was. */
+    boolean mightContain(String key) {
+        long h = SeededHash.hash(seed, key);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = (h1 + (long) i * h2) & mask;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
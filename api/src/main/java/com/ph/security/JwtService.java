@@ -1,32 +1,51 @@
 package com.ph.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
  * JWT service for generating, parsing, and validating JWT tokens.
  * It also exposes utility methods for common checks.
+ * <p>
+ * Verified claims are cached by SHA-256 digest of the token until the token's exp, so a client
+ * presenting the same token again costs a digest and a map lookup instead of parsing and an HMAC.
+ * Only tokens that verified are cached; hit/miss counts are exported as the "jwt.verified" cache metrics.
  */
 @Service
 public class JwtService {
 
     private final SecretKey key;
     private final long expirationMs;
+    private final JwtParser parser;
+    private final Cache<String, Claims> verified;
 
     public JwtService(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration-ms:3600000}") long expirationMs
+            @Value("${jwt.expiration-ms:3600000}") long expirationMs,
+            @Value("${jwt.cache.max-size:100000}") long cacheMaxSize,
+            MeterRegistry meterRegistry
     ) {
         if (secret == null || secret.trim().isEmpty()) {
             throw new IllegalStateException("jwt.secret is not set");
@@ -41,6 +60,28 @@ public class JwtService {
 
         this.key = Keys.hmacShaKeyFor(keyBytes);
         this.expirationMs = expirationMs;
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        return untilExpiration(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwt.verified");
     }
 
     /**
@@ -51,13 +92,14 @@ public class JwtService {
     }
 
     /**
-     * Build and sign JWT.
+     * Build and sign JWT. Each token gets a random jti so it can be revoked on its own (TokenRevocationList).
      */
     public String generateToken(Map<String, Object> extraClaims, String subject) {
         long now = System.currentTimeMillis();
         return Jwts.builder()
                 .claims(extraClaims)
                 .subject(subject)
+                .id(UUID.randomUUID().toString())
                 .issuedAt(new Date(now))
                 .expiration(new Date(now + expirationMs))
                 .signWith(key, Jwts.SIG.HS512)
@@ -93,12 +135,24 @@ public class JwtService {
      * Parse the token and return the requested claim value.
      */
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verifiedClaims(token));
+    }
+
+    /**
+     * Claims of a token whose signature and expiration check out, from the cache when the token has been
+     * seen before. Throws JwtException (or IllegalArgumentException) for an invalid token, as parsing does.
+     */
+    public Claims verifiedClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("Missing token");
+        }
+        Claims claims = verified.get(digest(token), d -> parser.parseSignedClaims(token).getPayload());
+        // The entry may outlive exp by up to the cache's expiration granularity.
+        Date exp = claims.getExpiration();
+        if (exp != null && !exp.after(new Date())) {
+            throw new IllegalArgumentException("Token expired");
+        }
+        return claims;
     }
 
     /**
@@ -107,10 +161,14 @@ public class JwtService {
      */
     public boolean isTokenValid(String token) {
         if (token == null) return false;
-        String sub = extractUsername(token);
-        if (sub == null) return false;
-        Date exp = extractExpiration(token);
-        return exp != null && exp.after(new Date());
+        Claims claims;
+        try {
+            claims = verifiedClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+        Date exp = claims.getExpiration();
+        return claims.getSubject() != null && exp != null && exp.after(new Date());
     }
 
     /**
@@ -128,6 +186,8 @@ public class JwtService {
 
     /**
      * Return the user id (subject) from an Authentication instance.
+     * Requests authenticated by {@link SupabaseJwtAuthenticationFilter} carry an {@link AuthenticatedUser} whose
+     * subject is returned directly; controllers should take that as an argument instead of calling this.
      * If authentication.getName() already contains a plain UUID string that is returned as-is.
      * If authentication.getName() contains a JWT string, we attempt to extract 'sub' from that token.
      * Throws IllegalArgumentException if subject cannot be resolved.
@@ -136,6 +196,9 @@ public class JwtService {
         if (authentication == null || authentication.getName() == null) {
             throw new IllegalArgumentException("Missing authentication or subject");
         }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.subject();
+        }
 
         String raw = authentication.getName();
 
@@ -156,4 +219,22 @@ public class JwtService {
         Date exp = extractExpiration(token);
         return exp == null || exp.before(new Date());
     }
+
+    /** Nanoseconds the claims may stay cached; tokens without exp are not kept. */
+    private static long untilExpiration(Claims claims) {
+        Date exp = claims.getExpiration();
+        if (exp == null) {
+            return 0;
+        }
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, exp.getTime() - System.currentTimeMillis()));
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
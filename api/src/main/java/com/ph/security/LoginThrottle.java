@@ -0,0 +1,61 @@
+package com.ph.security;
+
+import com.ph.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for POST /api/auth/login, applied before the user lookup and any BCrypt work:
+ * one token bucket per client IP (bursts from one source) and one per email (credential stuffing spread
+ * over many sources). Rejections are counted as auth.login.rejected{reason=ip|email}.
+ */
+@Component
+public class LoginThrottle {
+
+    private final StripedRateLimiter byIp;
+    private final StripedRateLimiter byEmail;
+    private final Counter rejectedByIp;
+    private final Counter rejectedByEmail;
+
+    public LoginThrottle(@Value("${auth.login.stripes:65536}") int stripes,
+                         @Value("${auth.login.ip.burst:20}") int ipBurst,
+                         @Value("${auth.login.ip.refill-every:PT3S}") Duration ipRefill,
+                         @Value("${auth.login.email.burst:5}") int emailBurst,
+                         @Value("${auth.login.email.refill-every:PT12S}") Duration emailRefill,
+                         MeterRegistry meterRegistry) {
+        this.byIp = new StripedRateLimiter(stripes, ipBurst, ipRefill.toNanos());
+        this.byEmail = new StripedRateLimiter(stripes, emailBurst, emailRefill.toNanos());
+        this.rejectedByIp = rejectedCounter(meterRegistry, "ip");
+        this.rejectedByEmail = rejectedCounter(meterRegistry, "email");
+    }
+
+    /** Takes one attempt from the IP's and the email's bucket, or throws TooManyRequestsException. */
+    public void admit(String email, String clientIp) {
+        long wait = byIp.tryAcquire(clientIp);
+        if (wait > 0) {
+            rejectedByIp.increment();
+            throw new TooManyRequestsException("Too many login attempts", retryAfterSeconds(wait));
+        }
+        wait = byEmail.tryAcquire(email);
+        if (wait > 0) {
+            rejectedByEmail.increment();
+            throw new TooManyRequestsException("Too many login attempts", retryAfterSeconds(wait));
+        }
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("auth.login.rejected")
+                .description("Login attempts rejected before password verification")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
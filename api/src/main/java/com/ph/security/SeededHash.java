@@ -0,0 +1,22 @@
+package com.ph.security;
+
+/**
+ * 64-bit FNV-1a over a string's chars from a per-instance seed, finished with the murmur3 mixer.
+ * Keys chosen by clients (IPs, emails) are hashed this way so nobody can precompute a set that collides.
+ */
+final class SeededHash {
+
+    private SeededHash() {
+    }
+
+    static long hash(long seed, String key) {
+        long h = seed;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
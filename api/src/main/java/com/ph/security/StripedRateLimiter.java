@@ -0,0 +1,66 @@
+package com.ph.security;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for an unbounded key space in fixed memory: keys hash onto a power-of-two number of
+ * stripes, and keys sharing a stripe share its bucket (colliding keys are limited together, never less).
+ * The hash is seeded per instance so callers cannot pick keys that collide with someone else's.
+ * <p>
+ * Each stripe is a single long holding its theoretical arrival time (GCRA): the instant at which the bucket
+ * would be full again. Taking a token is one compare-and-set, with no locks and no per-key allocation.
+ */
+final class StripedRateLimiter {
+
+    private final AtomicLongArray arrival;
+    private final int mask;
+    private final long interval;
+    private final long burstWindow;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+    private final LongSupplier clock;
+
+    /**
+     * @param stripes     rounded up to a power of two
+     * @param burst       tokens a full bucket holds
+     * @param refillNanos time for one token to come back
+     */
+    StripedRateLimiter(int stripes, int burst, long refillNanos) {
+        this(stripes, burst, refillNanos, System::nanoTime);
+    }
+
+    StripedRateLimiter(int stripes, int burst, long refillNanos, LongSupplier clock) {
+        if (stripes < 1 || burst < 1 || refillNanos < 1) {
+            throw new IllegalArgumentException("stripes, burst and refill must be positive");
+        }
+        int size = Integer.highestOneBit(stripes) == stripes ? stripes : Integer.highestOneBit(stripes) << 1;
+        this.arrival = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.interval = refillNanos;
+        this.burstWindow = refillNanos * burst;
+        long origin = clock.getAsLong();
+        // Measured from construction so every stripe starts full (arrival 0 is in the past).
+        this.clock = () -> clock.getAsLong() - origin;
+    }
+
+    /** Takes a token for the key: 0 when admitted, otherwise nanoseconds until the next token. */
+    long tryAcquire(String key) {
+        int stripe = stripe(key);
+        while (true) {
+            long now = clock.getAsLong();
+            long current = arrival.get(stripe);
+            long next = Math.max(current, now) + interval;
+            if (next - now > burstWindow) {
+                return next - now - burstWindow;
+            }
+            if (arrival.compareAndSet(stripe, current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private int stripe(String key) {
+        return (int) SeededHash.hash(seed, key) & mask;
+    }
+}
@@ -1,5 +1,7 @@
 package com.ph.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -14,19 +16,25 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Filter that validates JWT from Authorization header or HttpOnly cookie 'tm_token'.
- * If valid, populate SecurityContext with Authentication using UUID (token sub) as principal.
+ * If valid, populate SecurityContext with Authentication whose principal is an {@link AuthenticatedUser}
+ * (verified claims plus the token sub parsed as UUID). Tokens whose jti is in {@link TokenRevocationList} are ignored.
  */
 public class SupabaseJwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger log = LoggerFactory.getLogger(SupabaseJwtAuthenticationFilter.class);
 
+    private static final List<SimpleGrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
     private final JwtService jwtService;
+    private final TokenRevocationList revocationList;
 
-    public SupabaseJwtAuthenticationFilter(JwtService jwtService) {
+    public SupabaseJwtAuthenticationFilter(JwtService jwtService, TokenRevocationList revocationList) {
         this.jwtService = jwtService;
+        this.revocationList = revocationList;
     }
 
     @Override
@@ -49,30 +57,43 @@ public class SupabaseJwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            try {
-                // Validate token (signature + expiration)
-                if (!jwtService.isTokenValid(token)) {
-                    log.warn("SupabaseJwtAuthenticationFilter: token invalid or expired");
-                } else {
-                    // Extract subject (UUID)
-                    String subject = jwtService.extractUsername(token);
-                    if (subject == null || subject.isBlank()) {
-                        log.warn("SupabaseJwtAuthenticationFilter: token has no subject");
-                    } else {
-                        var auth = new UsernamePasswordAuthenticationToken(
-                                subject, // principal = UUID string (not the token)
-                                null,
-                                List.of(new SimpleGrantedAuthority("ROLE_USER"))
-                        );
-                        SecurityContextHolder.getContext().setAuthentication(auth);
-                        log.info("SupabaseJwtAuthenticationFilter: Authentication set for userId = {}", subject);
-                    }
-                }
-            } catch (Exception ex) {
-                log.error("SupabaseJwtAuthenticationFilter: failed to process token", ex);
+            AuthenticatedUser user = authenticate(token);
+            if (user != null) {
+                var auth = new UsernamePasswordAuthenticationToken(user, null, AUTHORITIES);
+                SecurityContextHolder.getContext().setAuthentication(auth);
+                log.debug("SupabaseJwtAuthenticationFilter: Authentication set for userId = {}", user.subject());
             }
         }
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * One verification (usually a cache hit, see {@link JwtService#verifiedClaims}) and one UUID parse per request;
+     * null when the token is invalid, expired, revoked or its subject is not a user id.
+     */
+    private AuthenticatedUser authenticate(String token) {
+        Claims claims;
+        try {
+            claims = jwtService.verifiedClaims(token);
+        } catch (JwtException | IllegalArgumentException ex) {
+            log.warn("SupabaseJwtAuthenticationFilter: token invalid or expired");
+            return null;
+        }
+        String subject = claims.getSubject();
+        if (claims.getExpiration() == null || subject == null || subject.isBlank()) {
+            log.warn("SupabaseJwtAuthenticationFilter: token has no subject or expiration");
+            return null;
+        }
+        if (revocationList.isRevoked(claims.getId())) {
+            log.debug("SupabaseJwtAuthenticationFilter: token revoked");
+            return null;
+        }
+        try {
+            return new AuthenticatedUser(UUID.fromString(subject), subject, claims);
+        } catch (IllegalArgumentException ex) {
+            log.warn("SupabaseJwtAuthenticationFilter: token subject is not a UUID");
+            return null;
+        }
+    }
 }
@@ -0,0 +1,73 @@
+package com.ph.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of revoked token ids (jti), checked by {@link SupabaseJwtAuthenticationFilter} on every
+ * request. A bloom filter answers first, so a token that was never revoked costs one hash and a few bit
+ * reads; only a possible hit looks at the exact map. Each entry is kept until its token's exp, after which
+ * the token fails verification anyway and {@link #retainUnexpired} drops it (rebuilding the filter).
+ * Filled and kept in sync with revoked_tokens by TokenRevocationService.
+ */
+@Component
+public class TokenRevocationList {
+
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private volatile State state;
+
+    public TokenRevocationList(@Value("${auth.revocation.expected-entries:100000}") int expectedEntries,
+                               @Value("${auth.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.state = new State(new BloomFilter(expectedEntries, falsePositiveRate), new ConcurrentHashMap<>());
+    }
+
+    private record State(BloomFilter filter, Map<String, Instant> expiries) {}
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        State current = state;
+        return current.filter().mightContain(jti) && current.expiries().containsKey(jti);
+    }
+
+    public synchronized void add(String jti, Instant expiresAt) {
+        State current = state;
+        // Map first: a reader that sees the filter bit must also find the entry.
+        current.expiries().put(jti, expiresAt);
+        current.filter().add(jti);
+    }
+
+    /**
+     * Rebuilds from the current entries plus the given ones (e.g. reloaded from revoked_tokens), keeping only
+     * those that expire after now. Entries are never removed otherwise, so revocations made while the caller
+     * was loading are not lost.
+     */
+    public synchronized void retainUnexpired(Map<String, Instant> loaded, Instant now) {
+        Map<String, Instant> expiries = new ConcurrentHashMap<>();
+        state.expiries().forEach((jti, exp) -> {
+            if (exp.isAfter(now)) {
+                expiries.put(jti, exp);
+            }
+        });
+        loaded.forEach((jti, exp) -> {
+            if (exp.isAfter(now)) {
+                expiries.merge(jti, exp, (a, b) -> a.isAfter(b) ? a : b);
+            }
+        });
+        BloomFilter filter = new BloomFilter(Math.max(expectedEntries, expiries.size() * 2), falsePositiveRate);
+        expiries.keySet().forEach(filter::add);
+        state = new State(filter, expiries);
+    }
+
+    public int size() {
+        return state.expiries().size();
+    }
+}
@@ -0,0 +1,87 @@
+package com.ph.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.ph.entities.User;
+import com.ph.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded cache in front of {@link UserRepository#findByEmail} for the login path. Emails with no user are
+ * kept for auth.user-cache.negative-ttl, so repeated guesses at unknown addresses stop reaching auth.users.
+ * Found users are kept for the short auth.user-cache.ttl only: passwords and emails change in Supabase,
+ * which this service hears nothing about, so for up to ttl after a change the old password still logs in
+ * and the new one is refused. A sign-up likewise becomes visible within negative-ttl.
+ * <p>
+ * Keys carry a seeded hash of the email rather than String.hashCode, so a flood of chosen emails cannot
+ * pile into one bucket, and Caffeine's frequency-based admission keeps one-off emails from evicting users
+ * who log in regularly. Hit/miss counts are exported as the "auth.users" cache metrics.
+ */
+@Component
+public class UserLookupCache {
+
+    private final UserRepository userRepository;
+    private final Cache<EmailKey, Optional<User>> users;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+
+    public UserLookupCache(UserRepository userRepository,
+                           @Value("${auth.user-cache.max-size:50000}") long maxSize,
+                           @Value("${auth.user-cache.ttl:PT10S}") Duration ttl,
+                           @Value("${auth.user-cache.negative-ttl:PT30S}") Duration negativeTtl,
+                           MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        long ttlNanos = ttl.toNanos();
+        long negativeTtlNanos = negativeTtl.toNanos();
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<EmailKey, Optional<User>>() {
+                    @Override
+                    public long expireAfterCreate(EmailKey key, Optional<User> user, long currentTime) {
+                        return user.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(EmailKey key, Optional<User> user, long currentTime, long currentDuration) {
+                        return user.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(EmailKey key, Optional<User> user, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "auth.users");
+    }
+
+    /** The user with this (normalised) email, loading it at most once per entry lifetime. */
+    public Optional<User> findByEmail(String email) {
+        return users.get(key(email), k -> userRepository.findByEmail(k.email()));
+    }
+
+    private EmailKey key(String email) {
+        return new EmailKey(email, (int) SeededHash.hash(seed, email));
+    }
+
+    /** Equality on the email alone; the hash is precomputed from the instance seed. */
+    private record EmailKey(String email, int hash) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof EmailKey other && email.equals(other.email);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
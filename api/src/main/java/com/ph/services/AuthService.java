@@ -1,23 +1,19 @@
 package com.ph.services;
 
-import com.ph.repositories.UserRepository;
+import com.ph.exception.ServiceUnavailableException;
+import com.ph.exception.TooManyRequestsException;
 import com.ph.security.JwtService;
+import com.ph.security.LoginThrottle;
+import com.ph.security.PasswordVerifier;
+import com.ph.security.UserLookupCache;
 import com.ph.entities.User;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.*;
 
-import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -28,30 +24,40 @@ public class AuthService {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
 
-    private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserLookupCache userLookupCache;
+    private final PasswordVerifier passwordVerifier;
+    private final LoginThrottle loginThrottle;
     private final JwtService jwtService;
+    private final MagicLinkSender magicLinkSender;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
-    private final String supabaseApiUrl;
-    private final String supabaseApiKey;
-
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    public AuthService(UserRepository userRepository,
+    public AuthService(UserLookupCache userLookupCache,
                        JwtService jwtService,
-                       PasswordEncoder passwordEncoder,
-                       @Value("${supabase.url}") String supabaseApiUrl,
-                       @Value("${supabase.key}") String supabaseApiKey) {
-        this.userRepository = userRepository;
+                       PasswordVerifier passwordVerifier,
+                       LoginThrottle loginThrottle,
+                       MagicLinkSender magicLinkSender,
+                       RefreshTokenService refreshTokenService,
+                       TokenRevocationService tokenRevocationService) {
+        this.userLookupCache = userLookupCache;
         this.jwtService = jwtService;
-        this.passwordEncoder = passwordEncoder;
-        this.supabaseApiUrl = supabaseApiUrl != null ? supabaseApiUrl.replaceAll("/+$", "") : null;
-        this.supabaseApiKey = supabaseApiKey;
+        this.passwordVerifier = passwordVerifier;
+        this.loginThrottle = loginThrottle;
+        this.magicLinkSender = magicLinkSender;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
-    public String authenticate(String email, String password) {
+    /**
+     * Password login. Attempts over the per-IP / per-email rate are rejected (TooManyRequestsException) before
+     * the user lookup, which goes through UserLookupCache (unknown emails included); the hash check runs on
+     * the bounded PasswordVerifier pool (ServiceUnavailableException when it is saturated).
+     * Returns an access token and a refresh token for {@link #refresh}.
+     */
+    public AuthTokens authenticate(String email, String password, String clientIp) {
+        loginThrottle.admit(email, clientIp);
         try {
-            Optional<User> optionalUser = userRepository.findByEmail(email);
+            Optional<User> optionalUser = userLookupCache.findByEmail(email);
             if (optionalUser.isEmpty()) {
                 logger.debug("User not found: {}", email);
                 throw new BadCredentialsException("Invalid email or password");
@@ -59,15 +65,15 @@ public class AuthService {
 
             User user = optionalUser.get();
 
-            if (!passwordEncoder.matches(password, user.getEncryptedPassword())) {
+            if (!passwordVerifier.matches(password, user.getEncryptedPassword())) {
                 logger.debug("Password mismatch for email: {}", email);
                 throw new BadCredentialsException("Invalid email or password");
             }
 
             logger.info("Authentication succeeded for user: {}", user.getId());
-            return jwtService.generateToken(user.getId().toString());
+            return new AuthTokens(jwtService.generateToken(user.getId().toString()), refreshTokenService.issue(user.getId()));
 
-        } catch (BadCredentialsException ex) {
+        } catch (BadCredentialsException | ServiceUnavailableException | TooManyRequestsException ex) {
             throw ex;
         } catch (Exception ex) {
             logger.error("Unexpected error during authentication for email: {}", email, ex);
@@ -76,85 +82,47 @@ public class AuthService {
     }
 
     /**
-     * Convenience overload without redirect.
+     * Exchanges a refresh token for a new access token and a new refresh token, without a password check.
+     * Throws BadCredentialsException when the token is unknown, expired, past its session's end or already used;
+     * a token used twice also ends its session (see {@link RefreshTokenService}).
      */
-    public void sendMagicLink(String email) {
-        sendMagicLink(email, null);
+    public AuthTokens refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        return new AuthTokens(jwtService.generateToken(rotation.userId().toString()), rotation.refreshToken());
     }
 
     /**
-     * Forward magic link request to Supabase.
-     * Sets Origin header to the supabase project URL to satisfy Supabase CORS checks.
+     * Revokes what was presented at logout: the refresh token's session, and the access token by its jti so it stops
+     * working before its exp. Either may be null; an access token that no longer verifies is ignored.
      */
-    public void sendMagicLink(String email, String redirectTo) {
-        if (supabaseApiUrl == null || supabaseApiKey == null) {
-            logger.error("Supabase configuration missing (supabase.url or supabase.key)");
-            throw new RuntimeException("Supabase configuration missing");
+    public void logout(String refreshToken, String accessToken) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
         }
-
-        String endpoint = supabaseApiUrl + "/auth/v1/otp";
-
-        RestTemplate restTemplate = createSimpleRestTemplate(10000, 10000);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("apikey", supabaseApiKey);
-        headers.set("Authorization", "Bearer " + supabaseApiKey);
-
-        // Important: set Origin to the Supabase project URL to avoid "Invalid CORS request"
-        headers.set("Origin", supabaseApiUrl);
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("email", email);
-        if (redirectTo != null && !redirectTo.isBlank()) {
-            body.put("redirect_to", redirectTo);
-        }
-
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
-
-        try {
-            logger.info("Forwarding magic link request to Supabase for {}", email);
-            ResponseEntity<String> response = restTemplate.postForEntity(URI.create(endpoint), request, String.class);
-
-            int status = response.getStatusCodeValue();
-            String respBody = response.getBody();
-            logger.info("Supabase responded status={} body={}", status, respBody);
-
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                String msg = "Supabase returned non-2xx: " + status + " body=" + respBody;
-                logger.error(msg);
-                throw new RuntimeException(msg);
-            }
-
-            // Check JSON body for embedded errors (Supabase sometimes returns JSON with error fields)
-            if (respBody != null && !respBody.isBlank()) {
-                try {
-                    Map map = objectMapper.readValue(respBody, Map.class);
-                    if (map.containsKey("error") || map.containsKey("msg") || map.containsKey("code")) {
-                        Object err = map.getOrDefault("error", map.get("msg"));
-                        if (err != null) {
-                            String errMsg = "Supabase returned error in body: " + String.valueOf(err);
-                            logger.error("{} fullBody={}", errMsg, respBody);
-                            throw new RuntimeException(errMsg);
-                        }
-                    }
-                } catch (JsonProcessingException e) {
-                    // response not JSON — ignore parsing error
+        if (accessToken != null && !accessToken.isBlank()) {
+            try {
+                Claims claims = jwtService.verifiedClaims(accessToken);
+                if (claims.getId() != null && claims.getExpiration() != null) {
+                    tokenRevocationService.revoke(claims.getId(), claims.getExpiration().toInstant());
                 }
+            } catch (JwtException | IllegalArgumentException ex) {
+                logger.debug("Logout with an invalid access token; nothing to revoke");
             }
-
-            logger.info("Magic link forwarded successfully for {}", email);
-        } catch (RestClientException ex) {
-            logger.error("Failed to forward magic link to Supabase for {}: {}", email, ex.getMessage(), ex);
-            throw new RuntimeException("Magic link login failed: " + ex.getMessage(), ex);
         }
     }
 
-    private RestTemplate createSimpleRestTemplate(int connectTimeoutMs, int readTimeoutMs) {
-        org.springframework.http.client.SimpleClientHttpRequestFactory requestFactory =
-                new org.springframework.http.client.SimpleClientHttpRequestFactory();
-        requestFactory.setConnectTimeout(connectTimeoutMs);
-        requestFactory.setReadTimeout(readTimeoutMs);
-        return new RestTemplate(requestFactory);
+    /**
+     * Convenience overload without redirect.
+     */
+    public void sendMagicLink(String email) {
+        sendMagicLink(email, null);
+    }
+
+    /**
+     * Queues a magic-link request to Supabase and returns without waiting for it; see {@link MagicLinkSender}
+     * for coalescing and retries. Throws ServiceUnavailableException when too many sends are outstanding.
+     */
+    public void sendMagicLink(String email, String redirectTo) {
+        magicLinkSender.send(email, redirectTo);
     }
 }
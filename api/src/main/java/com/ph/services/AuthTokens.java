@@ -0,0 +1,6 @@
+package com.ph.services;
+
+/**
+ * Result of a login or refresh: a short-lived JWT plus the single-use refresh token that replaces it.
+ */
+public record AuthTokens(String accessToken, String refreshToken) {}
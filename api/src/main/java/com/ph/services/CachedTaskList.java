@@ -0,0 +1,103 @@
+package com.ph.services;
+
+import com.ph.dto.TaskDto;
+import com.ph.repositories.TaskListVersion;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact, immutable copy of an owner's task list for {@link TaskListCache}.
+ * Columns are stored as parallel primitive arrays (ids as two longs, timestamps as epoch micros,
+ * due dates as epoch days) instead of one object graph per task with UUID/OffsetDateTime instances.
+ * Also remembers its own {@link TaskListVersion} (row count and newest updated_at) so a stale copy can be
+ * recognised against the version read from the database.
+ */
+final class CachedTaskList {
+
+    private static final int NO_DUE_DATE = Integer.MIN_VALUE;
+
+    private final long[] idBits;
+    private final String[] titles;
+    private final String[] descriptions;
+    private final int[] dueEpochDays;
+    private final long[] createdMicros;
+    private final long[] updatedMicros;
+    private final long maxUpdatedMicros;
+    private final int weight;
+
+    CachedTaskList(List<TaskDto> tasks) {
+        int n = tasks.size();
+        idBits = new long[n * 2];
+        titles = new String[n];
+        descriptions = new String[n];
+        dueEpochDays = new int[n];
+        createdMicros = new long[n];
+        updatedMicros = new long[n];
+
+        long bytes = 64L + n * 48L;
+        long maxUpdated = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            TaskDto t = tasks.get(i);
+            idBits[2 * i] = t.getId().getMostSignificantBits();
+            idBits[2 * i + 1] = t.getId().getLeastSignificantBits();
+            titles[i] = t.getTitle();
+            descriptions[i] = t.getDescription();
+            dueEpochDays[i] = t.getDue_date() != null ? (int) t.getDue_date().toEpochDay() : NO_DUE_DATE;
+            createdMicros[i] = toMicros(t.getCreated_at());
+            updatedMicros[i] = toMicros(t.getUpdated_at());
+            maxUpdated = Math.max(maxUpdated, updatedMicros[i]);
+            bytes += stringBytes(t.getTitle()) + stringBytes(t.getDescription());
+        }
+        maxUpdatedMicros = maxUpdated;
+        weight = (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    /** Whether this copy holds the list the version describes (same count and newest updated_at). */
+    boolean matches(TaskListVersion version) {
+        if (version.count() == null || version.count() != titles.length) {
+            return false;
+        }
+        return version.maxUpdatedAt() == null
+                ? titles.length == 0
+                : titles.length > 0 && toMicros(version.maxUpdatedAt()) == maxUpdatedMicros;
+    }
+
+    /** Approximate retained size in bytes, used as the cache weight. */
+    int weight() {
+        return weight;
+    }
+
+    List<TaskDto> toDtos() {
+        List<TaskDto> out = new ArrayList<>(titles.length);
+        for (int i = 0; i < titles.length; i++) {
+            out.add(new TaskDto(
+                    new UUID(idBits[2 * i], idBits[2 * i + 1]),
+                    titles[i],
+                    descriptions[i],
+                    dueEpochDays[i] != NO_DUE_DATE ? LocalDate.ofEpochDay(dueEpochDays[i]) : null,
+                    fromMicros(createdMicros[i]),
+                    fromMicros(updatedMicros[i])));
+        }
+        return out;
+    }
+
+    private static long toMicros(OffsetDateTime t) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, t.toInstant());
+    }
+
+    private static OffsetDateTime fromMicros(long micros) {
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS).atOffset(ZoneOffset.UTC);
+    }
+
+    private static long stringBytes(String s) {
+        // header + array header + (mostly Latin-1) payload
+        return s == null ? 0 : 40L + s.length();
+    }
+}
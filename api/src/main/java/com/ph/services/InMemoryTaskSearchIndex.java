@@ -0,0 +1,166 @@
+package com.ph.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ph.dto.TaskDto;
+import com.ph.repositories.TaskRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Search fallback for databases without tsvector (the H2 test profile).
+ * Keeps an inverted index per owner, built on the owner's first search and kept current from
+ * {@link TaskChangedEvent}s. Tokenizing and ranking mirror the Postgres setup in V8:
+ * 'simple' (lower-cased, no stemming) terms, all terms must match, title hits outweigh description hits.
+ */
+@Component
+public class InMemoryTaskSearchIndex {
+
+    private static final double TITLE_WEIGHT = 1.0;       // ts_rank weight for 'A'
+    private static final double DESCRIPTION_WEIGHT = 0.4; // ts_rank weight for 'B'
+
+    private final TaskRepository taskRepository;
+    private final Cache<UUID, OwnerIndex> indexes = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+
+    public InMemoryTaskSearchIndex(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+
+    public List<TaskDto> search(UUID ownerId, String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        OwnerIndex index = indexes.get(ownerId, this::build);
+        return index.search(terms, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        OwnerIndex index = indexes.getIfPresent(event.ownerId());
+        if (index == null || event.type() == TaskChangedEvent.Type.BULK) {
+            // Waits for an in-flight build and discards it, since it may predate this change.
+            indexes.invalidate(event.ownerId());
+            return;
+        }
+        if (event.type() == TaskChangedEvent.Type.DELETED) {
+            index.remove(event.taskId());
+        } else {
+            taskRepository.findDtoByIdAndOwnerId(event.taskId(), event.ownerId())
+                    .ifPresentOrElse(index::put, () -> index.remove(event.taskId()));
+        }
+    }
+
+    private OwnerIndex build(UUID ownerId) {
+        OwnerIndex index = new OwnerIndex();
+        taskRepository.findDtosByOwnerId(ownerId).forEach(index::put);
+        return index;
+    }
+
+    /** Lower-cased runs of letters and digits, like to_tsvector('simple', ...). */
+    static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                out.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    private static final class OwnerIndex {
+        private final Map<UUID, Doc> docs = new HashMap<>();
+        private final Map<String, Set<UUID>> postings = new HashMap<>();
+
+        synchronized void put(TaskDto task) {
+            remove(task.getId());
+            Doc doc = new Doc(task, counts(task.getTitle()), counts(task.getDescription()));
+            docs.put(task.getId(), doc);
+            for (String term : doc.terms()) {
+                postings.computeIfAbsent(term, k -> new HashSet<>()).add(task.getId());
+            }
+        }
+
+        synchronized void remove(UUID taskId) {
+            Doc doc = docs.remove(taskId);
+            if (doc == null) return;
+            for (String term : doc.terms()) {
+                Set<UUID> ids = postings.get(term);
+                if (ids != null && ids.remove(taskId) && ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        synchronized List<TaskDto> search(List<String> terms, int limit) {
+            // Intersect starting from the rarest term.
+            List<Set<UUID>> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Set<UUID> ids = postings.get(term);
+                if (ids == null) return List.of();
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+
+            List<Doc> hits = new ArrayList<>();
+            for (UUID id : lists.get(0)) {
+                boolean all = true;
+                for (int i = 1; i < lists.size() && all; i++) {
+                    all = lists.get(i).contains(id);
+                }
+                if (all) hits.add(docs.get(id));
+            }
+
+            return hits.stream()
+                    .sorted(Comparator.comparingDouble((Doc d) -> d.rank(terms)).reversed()
+                            .thenComparing((Doc d) -> d.task().getCreated_at(), Comparator.reverseOrder()))
+                    .limit(limit)
+                    .map(Doc::task)
+                    .toList();
+        }
+
+        private static Map<String, Integer> counts(String text) {
+            Map<String, Integer> counts = new HashMap<>();
+            for (String term : tokenize(text)) {
+                counts.merge(term, 1, Integer::sum);
+            }
+            return counts;
+        }
+    }
+
+    private record Doc(TaskDto task, Map<String, Integer> titleTerms, Map<String, Integer> descriptionTerms) {
+
+        Set<String> terms() {
+            Set<String> all = new HashSet<>(titleTerms.keySet());
+            all.addAll(descriptionTerms.keySet());
+            return all;
+        }
+
+        double rank(List<String> queryTerms) {
+            double score = 0;
+            for (String term : queryTerms) {
+                score += TITLE_WEIGHT * titleTerms.getOrDefault(term, 0)
+                        + DESCRIPTION_WEIGHT * descriptionTerms.getOrDefault(term, 0);
+            }
+            return score;
+        }
+    }
+}
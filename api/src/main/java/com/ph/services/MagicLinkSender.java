@@ -0,0 +1,183 @@
+package com.ph.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ph.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends magic-link requests to Supabase (POST /auth/v1/otp) in the background.
+ * <p>
+ * One shared JDK HttpClient keeps connections alive across calls, and sendAsync means no thread waits on
+ * Supabase. Requests for an email and redirect already sent (or in flight) within
+ * auth.magic-link.coalesce-window share that call instead of making another; a different redirect_to is a
+ * separate call. At most max-coalesced recent requests are remembered, so a flood of distinct addresses
+ * cannot grow the map without bound. Connection errors, 429 and 5xx are retried up to max-attempts times with
+ * jittered exponential backoff. At most max-pending sends are outstanding; beyond that callers get 503.
+ */
+@Component
+public class MagicLinkSender implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MagicLinkSender.class);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI endpoint;
+    private final String apiUrl;
+    private final String apiKey;
+    private final Cache<String, CompletableFuture<Void>> recent;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final int maxPending;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration timeout;
+
+    public MagicLinkSender(@Value("${supabase.url}") String supabaseApiUrl,
+                           @Value("${supabase.key}") String supabaseApiKey,
+                           @Value("${auth.magic-link.coalesce-window:PT60S}") Duration coalesceWindow,
+                           @Value("${auth.magic-link.max-coalesced:10000}") long maxCoalesced,
+                           @Value("${auth.magic-link.max-pending:1000}") int maxPending,
+                           @Value("${auth.magic-link.max-attempts:3}") int maxAttempts,
+                           @Value("${auth.magic-link.initial-backoff:PT0.5S}") Duration initialBackoff,
+                           @Value("${auth.magic-link.timeout:PT10S}") Duration timeout,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.apiUrl = supabaseApiUrl != null && !supabaseApiUrl.isBlank() ? supabaseApiUrl.replaceAll("/+$", "") : null;
+        this.apiKey = supabaseApiKey;
+        this.endpoint = apiUrl != null ? URI.create(apiUrl + "/auth/v1/otp") : null;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.objectMapper = objectMapper;
+        this.recent = Caffeine.newBuilder()
+                .expireAfterWrite(coalesceWindow)
+                .maximumSize(maxCoalesced)
+                .build();
+        this.maxPending = maxPending;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.timeout = timeout;
+        Gauge.builder("auth.magic_link.pending", pending, AtomicInteger::get)
+                .description("Magic-link requests not yet delivered to Supabase")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a magic-link request and returns at once. The future completes when Supabase accepted it, or
+     * exceptionally once retries are exhausted; callers coalesced onto an earlier request get that one's future.
+     */
+    public CompletableFuture<Void> send(String email, String redirectTo) {
+        if (endpoint == null || apiKey == null) {
+            throw new IllegalStateException("Supabase configuration missing");
+        }
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        String key = redirectTo != null && !redirectTo.isBlank() ? email + '\n' + redirectTo : email;
+        CompletableFuture<Void> existing = recent.asMap().putIfAbsent(key, result);
+        if (existing != null) {
+            log.debug("Magic link for {} coalesced with a recent request", email);
+            return existing;
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            recent.asMap().remove(key, result);
+            throw new ServiceUnavailableException("Too many magic link requests queued");
+        }
+        result.whenComplete((ok, ex) -> {
+            pending.decrementAndGet();
+            if (ex != null) {
+                // Let the user ask again right away rather than waiting out the coalescing window.
+                recent.asMap().remove(key, result);
+            }
+        });
+        attempt(request(email, redirectTo), email, 1, result);
+        return result;
+    }
+
+    private HttpRequest request(String email, String redirectTo) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("email", email);
+        if (redirectTo != null && !redirectTo.isBlank()) {
+            body.put("redirect_to", redirectTo);
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not encode magic link request", e);
+        }
+        return HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("apikey", apiKey)
+                .header("Authorization", "Bearer " + apiKey)
+                // Supabase rejects the call as an invalid CORS request without an Origin it knows
+                .header("Origin", apiUrl)
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private void attempt(HttpRequest request, String email, int attempt, CompletableFuture<Void> result) {
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, ex) -> {
+            String error = ex != null ? ex.toString() : errorOf(response);
+            if (error == null) {
+                log.info("Magic link forwarded to Supabase for {}", email);
+                result.complete(null);
+                return;
+            }
+            boolean retryable = ex != null || response.statusCode() == 429 || response.statusCode() >= 500;
+            if (retryable && attempt < maxAttempts) {
+                long backoff = initialBackoff.toMillis() << (attempt - 1);
+                long delay = backoff + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                log.warn("Magic link for {} failed (attempt {}/{}): {}; retrying in {} ms", email, attempt, maxAttempts, error, delay);
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                        .execute(() -> attempt(request, email, attempt + 1, result));
+            } else {
+                log.error("Magic link for {} failed after {} attempt(s): {}", email, attempt, error);
+                result.completeExceptionally(new IllegalStateException("Magic link request failed: " + error));
+            }
+        });
+    }
+
+    /** Null for a success; Supabase sometimes reports errors in a 2xx JSON body. */
+    private String errorOf(HttpResponse<String> response) {
+        if (response.statusCode() / 100 != 2) {
+            return "status " + response.statusCode() + " body=" + response.body();
+        }
+        String body = response.body();
+        if (body == null || body.isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            JsonNode error = json.hasNonNull("error") ? json.get("error") : json.get("msg");
+            return error != null && !error.isNull() ? "Supabase returned error in body: " + error.asText() : null;
+        } catch (JsonProcessingException e) {
+            return null; // not JSON
+        }
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+    }
+}
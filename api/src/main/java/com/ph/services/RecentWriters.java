@@ -0,0 +1,53 @@
+package com.ph.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Users who committed a write within the read-your-writes window. Their replica-eligible reads go to
+ * the primary (see ReplicaDataSource), so they never see a replica that has not caught up with their
+ * own change yet. Entries expire on their own; a zero window disables tracking.
+ */
+@Component
+public class RecentWriters {
+
+    private static final long MAX_TRACKED = 100_000;
+
+    private final Cache<String, Boolean> writers;
+
+    public RecentWriters(@Value("${db.replicas.read-your-writes-window:PT5S}") Duration window) {
+        this.writers = window.isZero() ? null : Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public void recordWrite(UUID userId) {
+        if (writers != null) {
+            writers.put(userId.toString(), Boolean.TRUE);
+        }
+    }
+
+    /** True when the authenticated user of the current thread wrote within the window. */
+    public boolean currentUserWroteRecently() {
+        if (writers == null) {
+            return false;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getName() != null
+                && writers.getIfPresent(authentication.getName()) != null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        recordWrite(event.ownerId());
+    }
+}
@@ -0,0 +1,168 @@
+package com.ph.services;
+
+import com.ph.config.DatabasePlatform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Opaque, single-use refresh tokens (refresh_tokens, V15, V18). A token is 256 random bits handed to the client;
+ * only a 128-bit SHA-256 prefix is stored, so a database leak does not reveal usable tokens. Exchanging a
+ * token marks its row used and issues a new one in the same transaction: one primary-key lookup and no
+ * password hashing. An expired token, or any token of a session past its end, is rejected with
+ * BadCredentialsException.
+ * <p>
+ * The tokens descending from one login form a family that shares the session's end: login time plus
+ * auth.refresh-token.max-session-lifetime, however often the token is rotated. Used rows are kept until they
+ * expire, so a token presented a second time is recognised as reuse (one of its two holders stole it): the whole
+ * family is deleted and both holders have to log in again.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final Duration ttl;
+    private final Duration maxSessionLifetime;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(JdbcTemplate jdbcTemplate,
+                               DatabasePlatform databasePlatform,
+                               @Value("${auth.refresh-token.ttl:P30D}") Duration ttl,
+                               @Value("${auth.refresh-token.max-session-lifetime:P90D}") Duration maxSessionLifetime) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+        this.ttl = ttl;
+        this.maxSessionLifetime = maxSessionLifetime;
+    }
+
+    /** The user id of a successful exchange and the refresh token that replaces the one presented. */
+    public record Rotation(UUID userId, String refreshToken) {}
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /** Issues the first refresh token of a new session (login). */
+    @Transactional
+    public String issue(UUID userId) {
+        return issue(userId, UUID.randomUUID(), OffsetDateTime.now().plus(maxSessionLifetime));
+    }
+
+    /**
+     * Consumes the token and issues its replacement in the same family; concurrent exchanges of one token
+     * succeed at most once. The rejection of an expired token does not roll back its use, nor the rejection of
+     * a reused one the deletion of its family.
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public Rotation rotate(String token) {
+        UUID hash = digest(token);
+        Consumed consumed = consume(hash);
+        if (consumed == null) {
+            revokeFamilyOfUsed(hash);
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        if (!consumed.expiresAt().isAfter(now) || !consumed.sessionExpiresAt().isAfter(now)) {
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+        return new Rotation(consumed.userId(), issue(consumed.userId(), consumed.familyId(), consumed.sessionExpiresAt()));
+    }
+
+    /** Ends the token's session (logout): its whole family is deleted. Unknown tokens are ignored. */
+    @Transactional
+    public void revoke(String token) {
+        jdbcTemplate.update("DELETE FROM refresh_tokens WHERE family_id IN (SELECT family_id FROM refresh_tokens WHERE token_hash = ?)",
+                digest(token));
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh-token.prune-interval:PT1H}")
+    public void pruneExpired() {
+        int pruned = jdbcTemplate.update("DELETE FROM refresh_tokens WHERE expires_at < ?", OffsetDateTime.now());
+        if (pruned > 0) {
+            log.info("Pruned {} expired refresh tokens", pruned);
+        }
+    }
+
+    /** Never later than the end of the session, so rotation cannot extend it. */
+    private String issue(UUID userId, UUID familyId, OffsetDateTime sessionExpiresAt) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        OffsetDateTime expiresAt = OffsetDateTime.now().plus(ttl);
+        jdbcTemplate.update("INSERT INTO refresh_tokens (token_hash, user_id, family_id, expires_at, session_expires_at)"
+                        + " VALUES (?, ?, ?, ?, ?)",
+                digest(token), userId, familyId,
+                expiresAt.isBefore(sessionExpiresAt) ? expiresAt : sessionExpiresAt, sessionExpiresAt);
+        return token;
+    }
+
+    private record Consumed(UUID userId, UUID familyId, OffsetDateTime expiresAt, OffsetDateTime sessionExpiresAt) {}
+
+    private static final RowMapper<Consumed> CONSUMED = (rs, i) -> new Consumed(
+            rs.getObject("user_id", UUID.class),
+            rs.getObject("family_id", UUID.class),
+            rs.getObject("expires_at", OffsetDateTime.class),
+            rs.getObject("session_expires_at", OffsetDateTime.class));
+
+    /** Marks the token's row used and returns what it held, or null when there was no unused one. */
+    private Consumed consume(UUID hash) {
+        OffsetDateTime now = OffsetDateTime.now();
+        if (databasePlatform.isPostgres()) {
+            List<Consumed> rows = jdbcTemplate.query(
+                    "UPDATE public.refresh_tokens SET used_at = ? WHERE token_hash = ? AND used_at IS NULL"
+                            + " RETURNING user_id, family_id, expires_at, session_expires_at",
+                    CONSUMED, now, hash);
+            return rows.isEmpty() ? null : rows.get(0);
+        }
+        List<Consumed> rows = jdbcTemplate.query(
+                "SELECT user_id, family_id, expires_at, session_expires_at FROM refresh_tokens WHERE token_hash = ? AND used_at IS NULL",
+                CONSUMED, hash);
+        // The update count decides between two concurrent exchanges of the same token.
+        if (rows.isEmpty()
+                || jdbcTemplate.update("UPDATE refresh_tokens SET used_at = ? WHERE token_hash = ? AND used_at IS NULL", now, hash) == 0) {
+            return null;
+        }
+        return rows.get(0);
+    }
+
+    /** A used token presented again: deletes every token of its family. */
+    private void revokeFamilyOfUsed(UUID hash) {
+        List<UUID> families = jdbcTemplate.queryForList(
+                "SELECT family_id FROM refresh_tokens WHERE token_hash = ? AND used_at IS NOT NULL", UUID.class, hash);
+        if (!families.isEmpty()) {
+            int deleted = jdbcTemplate.update("DELETE FROM refresh_tokens WHERE family_id = ?", families.get(0));
+            log.warn("Refresh token reused; revoked its session ({} tokens)", deleted);
+        }
+    }
+
+    private static UUID digest(String token) {
+        try {
+            ByteBuffer hash = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new UUID(hash.getLong(), hash.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.ph.services;
+
+import com.ph.config.DatabasePlatform;
+import com.ph.dto.TaskDto;
+import com.ph.repositories.ArchivedTaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Moves tasks that have not been updated for tasks.archive.max-age from tasks into task_archive (V14),
+ * in batches of tasks.archive.batch-size, each batch in its own short transaction.
+ * <p>
+ * An archived task leaves the owner's list, search and stats; delta sync reports it as deleted (a tombstone
+ * is written) and GET /api/tasks/archive serves it from then on. Owners with archived tasks get one
+ * {@link TaskChangedEvent.Type#BULK} per batch rather than a DELETED event per task.
+ * Off unless tasks.archive.max-age is set.
+ */
+@Service
+public class TaskArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskArchiveService.class);
+
+    /**
+     * One statement per batch on Postgres. SKIP LOCKED leaves rows being written by users (or by another
+     * node running this job) for the next run; idx_tasks_updated_at finds the oldest rows.
+     */
+    private static final String ARCHIVE_BATCH_SQL = """
+            WITH moved AS (
+                DELETE FROM public.tasks
+                WHERE (id, owner_id) IN (SELECT id, owner_id FROM public.tasks
+                                         WHERE updated_at < ? ORDER BY updated_at LIMIT ?
+                                         FOR UPDATE SKIP LOCKED)
+                RETURNING id, owner_id, title, description, due_date, created_at, updated_at
+            ), archived AS (
+                INSERT INTO public.task_archive (id, owner_id, title, description, due_date, created_at, updated_at)
+                SELECT id, owner_id, title, description, due_date, created_at, updated_at FROM moved
+                ON CONFLICT (id) DO NOTHING
+            ), tombstoned AS (
+                INSERT INTO public.task_tombstones (task_id, owner_id)
+                SELECT id, owner_id FROM moved
+                ON CONFLICT (task_id) DO NOTHING
+            )
+            SELECT owner_id FROM moved""";
+
+    private static final String NOTIFY_BULK_SQL =
+            "SELECT pg_notify(?, o || ':*:BULK') FROM unnest(string_to_array(?, ',')) AS o";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final DatabasePlatform databasePlatform;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate batchTransaction;
+    private final Duration maxAge;
+    private final int batchSize;
+
+    public TaskArchiveService(JdbcTemplate jdbcTemplate,
+                              NamedParameterJdbcTemplate namedJdbcTemplate,
+                              ArchivedTaskRepository archivedTaskRepository,
+                              DatabasePlatform databasePlatform,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${tasks.archive.max-age:PT0S}") Duration maxAge,
+                              @Value("${tasks.archive.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.databasePlatform = databasePlatform;
+        this.eventPublisher = eventPublisher;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.maxAge = maxAge;
+        this.batchSize = batchSize;
+    }
+
+    /** Keyset pagination over an owner's archived tasks, newest first; same cursor format as the task list. */
+    @Transactional(readOnly = true)
+    public TaskPage getArchivePageForOwner(UUID ownerId, String cursor, int limit) {
+        if (limit < 1 || limit > TaskService.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + TaskService.MAX_PAGE_SIZE);
+        }
+
+        List<TaskDto> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = archivedTaskRepository.findDtoFirstPage(ownerId, Limit.of(limit + 1));
+        } else {
+            TaskCursor after = TaskCursor.decode(cursor);
+            rows = archivedTaskRepository.findDtoPageAfter(ownerId, after.createdAt(), after.id(), Limit.of(limit + 1));
+        }
+
+        if (rows.size() <= limit) {
+            return new TaskPage(rows, null);
+        }
+        List<TaskDto> page = rows.subList(0, limit);
+        TaskDto last = page.get(limit - 1);
+        return new TaskPage(page, new TaskCursor(last.getCreated_at(), last.getId()).encode());
+    }
+
+    /** Archives everything older than the cutoff, batch by batch; a max-age of zero disables archival. */
+    @Scheduled(fixedDelayString = "${tasks.archive.interval:PT1H}")
+    public void archiveOldTasks() {
+        if (maxAge.isZero()) {
+            return;
+        }
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(maxAge);
+        long total = 0;
+        int moved;
+        do {
+            moved = archiveBatch(cutoff);
+            total += moved;
+        } while (moved == batchSize);
+        if (total > 0) {
+            log.info("Archived {} tasks not updated since {}", total, cutoff);
+        }
+    }
+
+    /** Moves up to batch-size tasks last updated before the cutoff; returns how many were moved. */
+    public int archiveBatch(OffsetDateTime cutoff) {
+        Integer moved = batchTransaction.execute(status -> {
+            List<UUID> owners = databasePlatform.isPostgres() ? archivePostgres(cutoff) : archivePortable(cutoff);
+            Set<UUID> distinctOwners = new LinkedHashSet<>(owners);
+            if (databasePlatform.isPostgres() && !distinctOwners.isEmpty()) {
+                String joined = distinctOwners.stream().map(UUID::toString).collect(Collectors.joining(","));
+                jdbcTemplate.query(NOTIFY_BULK_SQL, rs -> { }, TaskChangeNotificationListener.CHANNEL, joined);
+            }
+            for (UUID ownerId : distinctOwners) {
+                eventPublisher.publishEvent(new TaskChangedEvent(ownerId, null, TaskChangedEvent.Type.BULK));
+            }
+            return owners.size();
+        });
+        return moved != null ? moved : 0;
+    }
+
+    /** Returns the owner of each moved task. Per-row notifications are suppressed (V12); see archiveBatch. */
+    private List<UUID> archivePostgres(OffsetDateTime cutoff) {
+        jdbcTemplate.execute("SET LOCAL tasks.bulk_write = 'on'");
+        return jdbcTemplate.queryForList(ARCHIVE_BATCH_SQL, UUID.class, cutoff, batchSize);
+    }
+
+    /** Same move as archivePostgres for databases without data-modifying CTEs (H2). */
+    private List<UUID> archivePortable(OffsetDateTime cutoff) {
+        List<UUID> ids = new ArrayList<>();
+        List<UUID> owners = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, owner_id FROM tasks WHERE updated_at < ? ORDER BY updated_at LIMIT ?", rs -> {
+            ids.add(rs.getObject("id", UUID.class));
+            owners.add(rs.getObject("owner_id", UUID.class));
+        }, cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return owners;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("now", OffsetDateTime.now());
+        namedJdbcTemplate.update("INSERT INTO task_archive (id, owner_id, title, description, due_date, created_at, updated_at, archived_at)"
+                + " SELECT id, owner_id, title, description, due_date, created_at, updated_at, :now FROM tasks WHERE id IN (:ids)", params);
+        namedJdbcTemplate.update("INSERT INTO task_tombstones (task_id, owner_id, deleted_at)"
+                + " SELECT id, owner_id, :now FROM tasks WHERE id IN (:ids)", params);
+        namedJdbcTemplate.update("DELETE FROM tasks WHERE id IN (:ids)", params);
+        return owners;
+    }
+}
@@ -0,0 +1,159 @@
+package com.ph.services;
+
+import com.ph.config.DatabasePlatform;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Postgres only: one dedicated connection per node, opened with DriverManager outside the Hikari
+ * pool, LISTENs on the task_changes channel (fed by the V11 trigger) and hands each notification
+ * to {@link TaskEventBroadcaster}. After a reconnect subscribers get a reset event, since
+ * notifications sent while disconnected are lost.
+ */
+@Component
+public class TaskChangeNotificationListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskChangeNotificationListener.class);
+
+    static final String CHANNEL = "task_changes";
+
+    private static final int POLL_TIMEOUT_MS = 10_000;
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final DataSourceProperties dataSourceProperties;
+    private final DatabasePlatform databasePlatform;
+    private final TaskEventBroadcaster broadcaster;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public TaskChangeNotificationListener(DataSourceProperties dataSourceProperties,
+                                          DatabasePlatform databasePlatform,
+                                          TaskEventBroadcaster broadcaster) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.databasePlatform = databasePlatform;
+        this.broadcaster = broadcaster;
+    }
+
+    @Override
+    public void start() {
+        if (!databasePlatform.isPostgres()) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().daemon().name("task-change-listener").start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        Duration backoff = Duration.ofSeconds(1);
+        while (running) {
+            try (Connection connection = connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (connectedBefore) {
+                    broadcaster.publishResetToAll();
+                }
+                connectedBefore = true;
+                backoff = Duration.ofSeconds(1);
+                log.info("Listening for task changes on channel {}", CHANNEL);
+
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    // Blocks up to the timeout; throws once the connection is gone.
+                    PGNotification[] notifications = pg.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Task change listener disconnected, retrying in {}: {}", backoff, ex.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoff = backoff.multipliedBy(2).compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff.multipliedBy(2);
+            }
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Properties props = new Properties();
+        props.setProperty("user", dataSourceProperties.determineUsername());
+        props.setProperty("password", dataSourceProperties.determinePassword());
+        props.setProperty("tcpKeepAlive", "true");
+        props.setProperty("ApplicationName", "task-change-listener");
+        Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(), props);
+        connection.setAutoCommit(true);
+        return connection;
+    }
+
+    private void dispatch(String payload) {
+        TaskChangedEvent event = parse(payload);
+        if (event == null) {
+            log.warn("Ignoring malformed task change notification");
+            return;
+        }
+        broadcaster.publish(event.ownerId(), event.taskId(), event.type());
+    }
+
+    /**
+     * Payload format: "owner_id:task_id:TG_OP" (see V11__notify_task_changes.sql), or "owner_id:*:BULK" after an
+     * import. Null for anything else.
+     */
+    static TaskChangedEvent parse(String payload) {
+        String[] parts = payload == null ? new String[0] : payload.split(":", -1);
+        if (parts.length != 3) {
+            return null;
+        }
+        TaskChangedEvent.Type type = switch (parts[2]) {
+            case "INSERT" -> TaskChangedEvent.Type.CREATED;
+            case "UPDATE" -> TaskChangedEvent.Type.UPDATED;
+            case "DELETE" -> TaskChangedEvent.Type.DELETED;
+            case "BULK" -> TaskChangedEvent.Type.BULK;
+            default -> null;
+        };
+        if (type == null) {
+            return null;
+        }
+        try {
+            UUID taskId = type == TaskChangedEvent.Type.BULK ? null : UUID.fromString(parts[1]);
+            return new TaskChangedEvent(UUID.fromString(parts[0]), taskId, type);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
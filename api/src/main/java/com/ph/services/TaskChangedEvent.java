@@ -0,0 +1,15 @@
+package com.ph.services;
+
+import java.util.UUID;
+
+/**
+ * Published by {@link TaskService} for every task mutation.
+ * Listeners that maintain derived state (caches, indexes, feeds) react to it instead of
+ * being called from each mutation path.
+ * BULK means many of the owner's tasks changed at once (e.g. an import); taskId is then null
+ * and derived state for the owner should be rebuilt rather than patched.
+ */
+public record TaskChangedEvent(UUID ownerId, UUID taskId, Type type) {
+
+    public enum Type { CREATED, UPDATED, DELETED, BULK }
+}
@@ -0,0 +1,102 @@
+package com.ph.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader: one record at a time, so only the current record is held in memory.
+ * Quoted fields may contain commas, doubled quotes and line breaks; CRLF and LF both end a record.
+ * Structural problems (an unterminated quote, an oversized field) throw IllegalArgumentException,
+ * since nothing after them can be trusted.
+ */
+final class TaskCsvReader {
+
+    static final int MAX_FIELD_LENGTH = 65_536;
+
+    private final Reader in;
+    private long line = 1;
+    private long recordLine;
+    private int pushedBack = -2;
+
+    TaskCsvReader(Reader in) {
+        this.in = in instanceof BufferedReader ? in : new BufferedReader(in, 1 << 16);
+    }
+
+    /** The next record's fields, or null at end of input. */
+    List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        if (line == 1 && recordLine == 0 && c == '\uFEFF') {
+            c = read();
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    int n = read();
+                    if (n != '"') {
+                        quoted = false;
+                        c = n;
+                        continue;
+                    }
+                } else if (c == '\n') {
+                    line++;
+                }
+                append(field, c);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int n = read();
+                    if (n != '\n') {
+                        pushedBack = n;
+                    }
+                }
+                if (c != -1) {
+                    line++;
+                }
+                break;
+            } else {
+                append(field, c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /** Line on which the record last returned by {@link #readRecord()} starts. */
+    long recordLine() {
+        return recordLine;
+    }
+
+    private void append(StringBuilder field, int c) {
+        if (field.length() >= MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Field longer than " + MAX_FIELD_LENGTH + " characters on line " + recordLine);
+        }
+        field.append((char) c);
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return in.read();
+    }
+}
@@ -0,0 +1,40 @@
+package com.ph.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in an owner's task list: the (created_at, id) of the last task on a page.
+ * Clients only ever see the opaque, URL-safe encoded form.
+ */
+public record TaskCursor(OffsetDateTime createdAt, UUID id) {
+
+    public String encode() {
+        String raw = createdAt.toInstant() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor previously produced by {@link #encode()}.
+     * Throws IllegalArgumentException for anything that is not a valid cursor.
+     */
+    public static TaskCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            Instant createdAt = Instant.parse(raw.substring(0, sep));
+            UUID id = UUID.fromString(raw.substring(sep + 1));
+            return new TaskCursor(createdAt.atOffset(ZoneOffset.UTC), id);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Malformed cursor", ex);
+        }
+    }
+}
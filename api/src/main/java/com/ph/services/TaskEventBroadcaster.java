@@ -0,0 +1,224 @@
+package com.ph.services;
+
+import com.ph.config.DatabasePlatform;
+import com.ph.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans task change events out to the owner's Server-Sent Events subscribers (GET /api/tasks/stream).
+ * <p>
+ * An idle subscriber costs its SseEmitter and an empty queue: no thread, no preallocated buffer.
+ * Events are queued per subscriber and written by a virtual thread, so a client with a full socket
+ * buffer only parks its own writer. A subscriber whose queue exceeds the buffer size is dropped;
+ * the client reconnects and catches up with GET /api/tasks/changes.
+ * <p>
+ * On Postgres events arrive through {@link TaskChangeNotificationListener} (LISTEN/NOTIFY, so every
+ * node sees every write). Elsewhere (H2) committed {@link TaskChangedEvent}s are fanned out in-process.
+ */
+@Component
+public class TaskEventBroadcaster implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskEventBroadcaster.class);
+
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> HEARTBEAT =
+            SseEmitter.event().comment("heartbeat").build();
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> RESET =
+            SseEmitter.event().name("reset").data("{}").build();
+
+    private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+    private final boolean inProcess;
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Counter dropped;
+    private volatile boolean running;
+
+    public TaskEventBroadcaster(DatabasePlatform databasePlatform,
+                                @Value("${tasks.stream.max-subscribers:50000}") int maxSubscribers,
+                                @Value("${tasks.stream.buffer-size:64}") int bufferSize,
+                                @Value("${tasks.stream.timeout:PT30M}") Duration timeout,
+                                MeterRegistry meterRegistry) {
+        this.inProcess = !databasePlatform.isPostgres();
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.dropped = Counter.builder("tasks.stream.dropped")
+                .description("Subscribers disconnected because they fell too far behind")
+                .register(meterRegistry);
+        meterRegistry.gauge("tasks.stream.subscribers", subscriberCount);
+    }
+
+    /** Registers a subscriber for the owner's task changes; 503 when the node is at capacity. */
+    public SseEmitter subscribe(UUID ownerId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceUnavailableException("Too many task stream subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(ownerId, emitter);
+        // add inside compute, so it cannot race with unregister() dropping the owner's empty set
+        subscribers.compute(ownerId, (id, owned) -> {
+            Set<Subscriber> set = owned != null ? owned : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        emitter.onCompletion(subscriber::unregister);
+        emitter.onTimeout(subscriber::unregister);
+        emitter.onError(ex -> subscriber.unregister());
+        // Commits the response headers right away so the client knows it is connected.
+        subscriber.offer(HEARTBEAT);
+        return emitter;
+    }
+
+    public void publish(UUID ownerId, UUID taskId, TaskChangedEvent.Type type) {
+        if (type == TaskChangedEvent.Type.BULK) {
+            publishReset(ownerId);
+            return;
+        }
+        Set<Subscriber> owned = subscribers.get(ownerId);
+        if (owned == null || owned.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> event = SseEmitter.event()
+                .name(type.name().toLowerCase(Locale.ROOT))
+                .data("{\"id\":\"" + taskId + "\"}")
+                .build();
+        for (Subscriber subscriber : owned) {
+            subscriber.offer(event);
+        }
+    }
+
+    /** Tells the owner's subscribers to resync instead of applying per-task events (e.g. after an import). */
+    public void publishReset(UUID ownerId) {
+        Set<Subscriber> owned = subscribers.get(ownerId);
+        if (owned != null) {
+            owned.forEach(s -> s.offer(RESET));
+        }
+    }
+
+    /** Tells every subscriber that events may have been missed (e.g. the listener reconnected). */
+    public void publishResetToAll() {
+        subscribers.values().forEach(owned -> owned.forEach(s -> s.offer(RESET)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (inProcess) {
+            publish(event.ownerId(), event.taskId(), event.type());
+        }
+    }
+
+    /** Keeps idle connections from being closed by proxies and detects vanished clients. */
+    @Scheduled(fixedDelayString = "${tasks.stream.heartbeat-interval:PT25S}")
+    public void sendHeartbeats() {
+        subscribers.values().forEach(owned -> owned.forEach(s -> s.offer(HEARTBEAT)));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Runs in the default (last-started, first-stopped) phase, i.e. before the web server's graceful
+     * shutdown, which would otherwise wait out its whole timeout on open streams. Clients reconnect.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        subscribers.values().forEach(owned -> owned.forEach(s -> s.emitter.complete()));
+        writers.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private final class Subscriber {
+        private final UUID ownerId;
+        private final SseEmitter emitter;
+        private final ConcurrentLinkedQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private final AtomicBoolean registered = new AtomicBoolean(true);
+
+        Subscriber(UUID ownerId, SseEmitter emitter) {
+            this.ownerId = ownerId;
+            this.emitter = emitter;
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (!registered.get()) {
+                return;
+            }
+            if (queued.incrementAndGet() > bufferSize) {
+                dropped.increment();
+                log.debug("Dropping slow task stream subscriber of owner {}", ownerId);
+                unregister();
+                // complete() waits for the emitter's lock, which its writer holds while blocked on the socket;
+                // the publishing thread (the listener, or another user's request) must not wait with it.
+                writers.execute(emitter::complete);
+                return;
+            }
+            queue.add(event);
+            if (writing.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                while ((event = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException ex) {
+                        // Client went away or the emitter already completed.
+                        unregister();
+                        return;
+                    }
+                }
+                writing.set(false);
+                // An offer may have enqueued after the last poll but before writing was cleared.
+            } while (!queue.isEmpty() && writing.compareAndSet(false, true));
+        }
+
+        void unregister() {
+            if (!registered.compareAndSet(true, false)) {
+                return;
+            }
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(ownerId, (id, owned) -> {
+                owned.remove(this);
+                return owned.isEmpty() ? null : owned;
+            });
+        }
+    }
+}
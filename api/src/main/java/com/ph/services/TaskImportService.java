@@ -0,0 +1,410 @@
+package com.ph.services;
+
+import com.ph.config.DatabasePlatform;
+import com.ph.dto.TaskImportErrorDto;
+import com.ph.dto.TaskImportResultDto;
+import com.ph.exception.PayloadTooLargeException;
+import com.ph.exception.RequestTimeoutException;
+import com.ph.exception.ServiceUnavailableException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bulk import of tasks from CSV, streamed: rows are parsed, validated and written one at a time,
+ * so memory use does not depend on the size of the upload.
+ * <p>
+ * On Postgres rows go through COPY FROM STDIN in 64 KB chunks; elsewhere (H2) as multi-row INSERTs.
+ * Either way it is one transaction: invalid rows are skipped and reported, a database error rolls
+ * back the whole import. Per-row change notifications are suppressed for the import (see V12);
+ * subscribers get a single {@link TaskChangedEvent.Type#BULK} for the owner instead.
+ * <p>
+ * An import holds a connection for as long as the client takes to upload, so at most
+ * tasks.import.max-concurrent run at once (more get 503), and each is cut off after tasks.import.max-rows
+ * rows, tasks.import.max-size characters or tasks.import.timeout, whichever comes first. A client that
+ * stops sending is cut off by the connector's read timeout (server.tomcat.connection-timeout).
+ */
+@Service
+public class TaskImportService {
+
+    public static final int MAX_REPORTED_ERRORS = 1_000;
+
+    private static final String COPY_SQL =
+            "COPY public.tasks (owner_id, title, description, due_date, created_at, updated_at) FROM STDIN WITH (FORMAT csv)";
+    private static final int COPY_CHUNK_CHARS = 1 << 16;
+    private static final int ROWS_PER_INSERT = 500;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate importTransaction;
+    private final Semaphore imports;
+    private final long maxRows;
+    private final long maxChars;
+    private final Duration timeout;
+
+    public TaskImportService(DataSource dataSource,
+                             JdbcTemplate jdbcTemplate,
+                             DatabasePlatform databasePlatform,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${tasks.import.max-concurrent:4}") int maxConcurrent,
+                             @Value("${tasks.import.max-rows:100000}") long maxRows,
+                             @Value("${tasks.import.max-size:50MB}") DataSize maxSize,
+                             @Value("${tasks.import.timeout:PT5M}") Duration timeout) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+        this.eventPublisher = eventPublisher;
+        this.importTransaction = new TransactionTemplate(transactionManager);
+        this.imports = new Semaphore(maxConcurrent);
+        this.maxRows = maxRows;
+        this.maxChars = maxSize.toBytes();
+        this.timeout = timeout;
+    }
+
+    /**
+     * Imports every valid row as a task of ownerId. The header row names the columns: title is required;
+     * description, due_date (ISO date) and created_at (ISO offset date-time) are optional; any other
+     * column, including id and owner_id, is ignored. updated_at is set to the import time so delta sync
+     * picks the new tasks up.
+     */
+    public TaskImportResultDto importCsv(UUID ownerId, Reader csv) throws IOException {
+        // Checked before the transaction, so a refused import never takes a connection
+        if (!imports.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many imports in progress");
+        }
+        try {
+            BoundedReader bounded = new BoundedReader(csv, maxChars, System.nanoTime() + timeout.toNanos());
+            // Any exception rolls back, an IOException too (e.g. the client aborting the upload)
+            return importTransaction.execute(status -> {
+                try {
+                    return importInTransaction(ownerId, bounded);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            imports.release();
+        }
+    }
+
+    private TaskImportResultDto importInTransaction(UUID ownerId, Reader csv) throws IOException {
+        TaskCsvReader reader = new TaskCsvReader(csv);
+        List<String> header = reader.readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV is empty");
+        }
+        Columns columns = Columns.of(header);
+        OffsetDateTime now = OffsetDateTime.now();
+        TaskImportResultDto result = new TaskImportResultDto();
+
+        RowSink sink = databasePlatform.isPostgres() ? new CopySink(ownerId) : new InsertSink(ownerId);
+        boolean finished = false;
+        long rows = 0;
+        try {
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                if (record.size() == 1 && record.get(0).isEmpty()) {
+                    continue; // blank line
+                }
+                if (++rows > maxRows) {
+                    throw new PayloadTooLargeException("CSV has more than " + maxRows + " rows");
+                }
+                String error = columns.validate(record);
+                if (error != null) {
+                    reject(result, reader.recordLine(), error);
+                    continue;
+                }
+                ImportedTask task;
+                try {
+                    task = columns.toTask(record, now);
+                } catch (DateTimeException ex) {
+                    reject(result, reader.recordLine(), "Invalid date");
+                    continue;
+                }
+                sink.add(task);
+                result.setImported(result.getImported() + 1);
+            }
+            sink.finish();
+            finished = true;
+        } catch (SQLException ex) {
+            throw jdbcTemplate.getExceptionTranslator().translate("Task import", COPY_SQL, ex);
+        } finally {
+            if (!finished) {
+                sink.abort();
+            }
+        }
+
+        if (result.getImported() > 0) {
+            if (databasePlatform.isPostgres()) {
+                jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", TaskChangeNotificationListener.CHANNEL,
+                        ownerId + ":*:BULK");
+            }
+            eventPublisher.publishEvent(new TaskChangedEvent(ownerId, null, TaskChangedEvent.Type.BULK));
+        }
+        return result;
+    }
+
+    private static void reject(TaskImportResultDto result, long line, String error) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new TaskImportErrorDto(line, error));
+        } else {
+            result.setErrors_truncated(true);
+        }
+    }
+
+    record ImportedTask(String title, String description, LocalDate dueDate,
+                                OffsetDateTime createdAt, OffsetDateTime updatedAt) {
+    }
+
+    /** Positions of the recognised columns in the header; -1 when absent. */
+    private record Columns(int count, int title, int description, int dueDate, int createdAt) {
+
+        static Columns of(List<String> header) {
+            List<String> names = header.stream().map(h -> h.trim().toLowerCase(Locale.ROOT)).toList();
+            int title = names.indexOf("title");
+            if (title < 0) {
+                throw new IllegalArgumentException("CSV header must contain a title column");
+            }
+            return new Columns(names.size(), title, names.indexOf("description"), names.indexOf("due_date"),
+                    names.indexOf("created_at"));
+        }
+
+        String validate(List<String> record) {
+            if (record.size() != count) {
+                return "Expected " + count + " fields, found " + record.size();
+            }
+            if (record.get(title).isBlank()) {
+                return "title is required";
+            }
+            for (String field : record) {
+                if (field.indexOf('\0') >= 0) {
+                    return "NUL characters are not allowed";
+                }
+            }
+            return null;
+        }
+
+        ImportedTask toTask(List<String> record, OffsetDateTime now) {
+            String descriptionText = description >= 0 ? emptyToNull(record.get(description)) : null;
+            String dueDateText = dueDate >= 0 ? emptyToNull(record.get(dueDate)) : null;
+            String createdAtText = createdAt >= 0 ? emptyToNull(record.get(createdAt)) : null;
+            return new ImportedTask(record.get(title), descriptionText,
+                    dueDateText != null ? LocalDate.parse(dueDateText.trim()) : null,
+                    createdAtText != null ? OffsetDateTime.parse(createdAtText.trim()) : now,
+                    now);
+        }
+
+        private static String emptyToNull(String value) {
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    private interface RowSink {
+        void add(ImportedTask task) throws SQLException;
+
+        void finish() throws SQLException;
+
+        void abort();
+    }
+
+    /** Re-encodes validated rows as COPY csv (owner_id forced) and sends them in chunks. */
+    private final class CopySink implements RowSink {
+        private final String owner;
+        private final CopyIn copyIn;
+        private final StringBuilder chunk = new StringBuilder(COPY_CHUNK_CHARS + 1024);
+
+        CopySink(UUID ownerId) {
+            this.owner = ownerId.toString();
+            jdbcTemplate.execute("SET LOCAL tasks.bulk_write = 'on'");
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                this.copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Could not start COPY", ex);
+            }
+        }
+
+        @Override
+        public void add(ImportedTask task) throws SQLException {
+            appendCopyRow(chunk, owner, task);
+            if (chunk.length() >= COPY_CHUNK_CHARS) {
+                flush();
+            }
+        }
+
+        @Override
+        public void finish() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+
+        @Override
+        public void abort() {
+            try {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            } catch (SQLException ignored) {
+                // the transaction is rolled back anyway
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            chunk.setLength(0);
+        }
+    }
+
+    /**
+     * One row of COPY_SQL's csv. Text is always quoted, so an empty description stays distinct from NULL
+     * (an unquoted empty field) and no value can read as the end-of-data marker.
+     */
+    static void appendCopyRow(StringBuilder out, String owner, ImportedTask task) {
+        out.append(owner).append(',');
+        quote(out, task.title());
+        out.append(',');
+        if (task.description() != null) {
+            quote(out, task.description());
+        }
+        out.append(',');
+        if (task.dueDate() != null) {
+            out.append(task.dueDate());
+        }
+        out.append(',').append(task.createdAt()).append(',').append(task.updatedAt()).append('\n');
+    }
+
+    private static void quote(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    /** Fails the read once more than maxChars have arrived or the deadline has passed. */
+    private static final class BoundedReader extends FilterReader {
+        private final long maxChars;
+        private final long deadlineNanos;
+        private long read;
+
+        BoundedReader(Reader in, long maxChars, long deadlineNanos) {
+            super(in);
+            this.maxChars = maxChars;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public int read() throws IOException {
+            char[] one = new char[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0];
+        }
+
+        @Override
+        public int read(char[] buf, int off, int len) throws IOException {
+            if (System.nanoTime() - deadlineNanos > 0) {
+                throw new RequestTimeoutException("CSV upload did not finish in time");
+            }
+            int n = super.read(buf, off, len);
+            if (n > 0 && (read += n) > maxChars) {
+                throw new PayloadTooLargeException("CSV is larger than " + maxChars + " characters");
+            }
+            return n;
+        }
+    }
+
+    /** Multi-row INSERT of ROWS_PER_INSERT rows per statement, for databases without COPY. */
+    private final class InsertSink implements RowSink {
+        private static final String COLUMNS =
+                "INSERT INTO tasks (id, owner_id, title, description, due_date, created_at, updated_at, version) VALUES ";
+        private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, 0)";
+
+        private final UUID ownerId;
+        private final List<Object> args = new ArrayList<>(ROWS_PER_INSERT * 7);
+        private final String fullInsert = insertSql(ROWS_PER_INSERT);
+        private int rows;
+
+        InsertSink(UUID ownerId) {
+            this.ownerId = ownerId;
+        }
+
+        @Override
+        public void add(ImportedTask task) {
+            args.add(UUID.randomUUID());
+            args.add(ownerId);
+            args.add(task.title());
+            args.add(task.description());
+            args.add(task.dueDate());
+            args.add(task.createdAt());
+            args.add(task.updatedAt());
+            if (++rows == ROWS_PER_INSERT) {
+                flush();
+            }
+        }
+
+        @Override
+        public void finish() {
+            flush();
+        }
+
+        @Override
+        public void abort() {
+            // nothing buffered outside the transaction
+        }
+
+        private void flush() {
+            if (rows == 0) {
+                return;
+            }
+            jdbcTemplate.update(rows == ROWS_PER_INSERT ? fullInsert : insertSql(rows), args.toArray());
+            args.clear();
+            rows = 0;
+        }
+
+        private static String insertSql(int rows) {
+            StringBuilder sql = new StringBuilder(COLUMNS);
+            for (int i = 0; i < rows; i++) {
+                sql.append(i == 0 ? "" : ", ").append(ROW);
+            }
+            return sql.toString();
+        }
+    }
+}
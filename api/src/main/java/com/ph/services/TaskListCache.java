@@ -0,0 +1,71 @@
+package com.ph.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ph.dto.TaskDto;
+import com.ph.repositories.TaskListVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * In-process cache of each owner's full task list (GET /api/tasks without paging).
+ * Bounded by total estimated bytes with Caffeine's W-TinyLFU eviction, expires after a TTL,
+ * and drops an owner's entry once any of their task mutations has committed.
+ * Hit/miss/eviction counts are exported as the "tasks.list" cache metrics.
+ */
+@Component
+public class TaskListCache {
+
+    private final Cache<UUID, CachedTaskList> cache;
+
+    public TaskListCache(@Value("${tasks.cache.max-weight-bytes:67108864}") long maxWeightBytes,
+                         @Value("${tasks.cache.ttl:PT5M}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((UUID ownerId, CachedTaskList tasks) -> tasks.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tasks.list");
+    }
+
+    /**
+     * Returns the owner's list, loading it on a miss. A concurrent invalidation waits for an
+     * in-flight load of the same owner, so a load that read pre-commit data is never left behind.
+     */
+    public List<TaskDto> get(UUID ownerId, Function<UUID, List<TaskDto>> loader) {
+        return cache.get(ownerId, id -> new CachedTaskList(loader.apply(id))).toDtos();
+    }
+
+    /**
+     * As {@link #get(UUID, Function)}, but an entry that does not match the version just read from the
+     * database is reloaded. Invalidation only follows this node's commits, so without this check a write on
+     * another node (or a read between commit and invalidation) could serve an old list under a new ETag.
+     */
+    public List<TaskDto> get(UUID ownerId, TaskListVersion current, Function<UUID, List<TaskDto>> loader) {
+        CachedTaskList cached = cache.get(ownerId, id -> new CachedTaskList(loader.apply(id)));
+        if (!cached.matches(current)) {
+            cached = cache.asMap().compute(ownerId, (id, existing) ->
+                    existing != null && existing.matches(current) ? existing : new CachedTaskList(loader.apply(id)));
+        }
+        return cached.toDtos();
+    }
+
+    public void invalidate(UUID ownerId) {
+        cache.invalidate(ownerId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        invalidate(event.ownerId());
+    }
+}
@@ -0,0 +1,9 @@
+package com.ph.services;
+
+import com.ph.dto.TaskDto;
+
+import java.util.List;
+
+/** One keyset page of an owner's tasks; nextCursor is null on the last page. */
+public record TaskPage(List<TaskDto> tasks, String nextCursor) {
+}
@@ -0,0 +1,70 @@
+package com.ph.services;
+
+import com.ph.config.DatabasePlatform;
+import com.ph.dto.TaskDto;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ranked full-text search over an owner's task titles and descriptions.
+ * On Postgres this is one query against the (owner_id, search_vector) GIN index from V8;
+ * elsewhere it falls back to {@link InMemoryTaskSearchIndex}.
+ */
+@Service
+public class TaskSearchService {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final String SEARCH_SQL =
+            "SELECT t.id, t.title, t.description, t.due_date, t.created_at, t.updated_at"
+                    + " FROM public.tasks t, websearch_to_tsquery('simple', :q) query"
+                    + " WHERE t.owner_id = :ownerId AND t.search_vector @@ query"
+                    + " ORDER BY ts_rank(t.search_vector, query) DESC, t.created_at DESC"
+                    + " LIMIT :limit";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final InMemoryTaskSearchIndex inMemoryIndex;
+
+    public TaskSearchService(NamedParameterJdbcTemplate jdbcTemplate,
+                             DatabasePlatform databasePlatform,
+                             InMemoryTaskSearchIndex inMemoryIndex) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+        this.inMemoryIndex = inMemoryIndex;
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskDto> search(UUID ownerId, String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("q is required");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        if (!databasePlatform.isPostgres()) {
+            return inMemoryIndex.search(ownerId, query, limit);
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("q", query)
+                .addValue("ownerId", ownerId)
+                .addValue("limit", limit);
+        return jdbcTemplate.query(SEARCH_SQL, params, (rs, rowNum) -> new TaskDto(
+                rs.getObject("id", UUID.class),
+                rs.getString("title"),
+                rs.getString("description"),
+                rs.getObject("due_date", LocalDate.class),
+                rs.getObject("created_at", OffsetDateTime.class),
+                rs.getObject("updated_at", OffsetDateTime.class)));
+    }
+}
@@ -1,24 +1,65 @@
 package com.ph.services;
 
+import com.ph.dto.TaskBatchOperationDto;
+import com.ph.dto.TaskBatchResultDto;
 import com.ph.dto.TaskCreateDto;
+import com.ph.dto.TaskDto;
+import com.ph.exception.PreconditionFailedException;
 import com.ph.model.Task;
+import com.ph.model.TaskTombstone;
+import com.ph.repositories.TaskListVersion;
+import com.ph.repositories.TaskPatch;
 import com.ph.repositories.TaskRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class TaskService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_BATCH_OPERATIONS = 10_000;
+
+    /** Operations per flush/clear; a multiple of hibernate.jdbc.batch_size (100) so each flush sends only full JDBC batches. */
+    private static final int BATCH_CHUNK_SIZE = 500;
+
     private final TaskRepository taskRepository;
+    private final EntityManager entityManager;
+    private final TaskListCache taskListCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate listLoadTransaction;
 
-    public TaskService(TaskRepository taskRepository) {
+    public TaskService(TaskRepository taskRepository,
+                       EntityManager entityManager,
+                       TaskListCache taskListCache,
+                       ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager) {
         this.taskRepository = taskRepository;
+        this.entityManager = entityManager;
+        this.taskListCache = taskListCache;
+        this.eventPublisher = eventPublisher;
+        this.listLoadTransaction = new TransactionTemplate(transactionManager);
+        this.listLoadTransaction.setReadOnly(true);
+        // ReadReplicaConfig keeps this name on the primary: what it loads is cached until the next local write.
+        this.listLoadTransaction.setName(TaskService.class.getName() + ".getTasksForOwner");
     }
 
+    @Transactional
     public Task createTask(UUID ownerId, TaskCreateDto dto) {
         Task t = new Task();
         t.setOwnerId(ownerId);
@@ -27,36 +68,256 @@ public class TaskService {
         t.setDueDate(dto.getDue_date());
         t.setCreatedAt(OffsetDateTime.now());
         t.setUpdatedAt(OffsetDateTime.now());
-        return taskRepository.save(t);
+        Task saved = taskRepository.save(t);
+        publish(ownerId, saved.getId(), TaskChangedEvent.Type.CREATED);
+        return saved;
+    }
+
+    // Reads below project straight into TaskDto inside read-only transactions:
+    // no managed entities, no snapshots for dirty checking, no flush at commit.
+
+    /**
+     * Full list, served from {@link TaskListCache} when possible.
+     * Deliberately not transactional: a cache hit must not check out a connection.
+     */
+    public List<TaskDto> getTasksForOwner(UUID ownerId) {
+        return taskListCache.get(ownerId, this::loadTasks);
+    }
+
+    /**
+     * Full list at least as new as the given version (from {@link #getListVersion}); a cached copy that does
+     * not match it is reloaded, so the list never lags behind an ETag built from that version.
+     */
+    public List<TaskDto> getTasksForOwner(UUID ownerId, TaskListVersion current) {
+        return taskListCache.get(ownerId, current, this::loadTasks);
+    }
+
+    private List<TaskDto> loadTasks(UUID ownerId) {
+        return listLoadTransaction.execute(status -> taskRepository.findDtosByOwnerId(ownerId));
+    }
+
+    /**
+     * Keyset pagination over an owner's tasks, newest first.
+     * Fetches one extra row to learn whether another page follows, so no count query is needed.
+     */
+    @Transactional(readOnly = true)
+    public TaskPage getTaskPageForOwner(UUID ownerId, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        List<TaskDto> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = taskRepository.findDtoFirstPage(ownerId, Limit.of(limit + 1));
+        } else {
+            TaskCursor after = TaskCursor.decode(cursor);
+            rows = taskRepository.findDtoPageAfter(ownerId, after.createdAt(), after.id(), Limit.of(limit + 1));
+        }
+
+        if (rows.size() <= limit) {
+            return new TaskPage(rows, null);
+        }
+        List<TaskDto> page = rows.subList(0, limit);
+        TaskDto last = page.get(limit - 1);
+        return new TaskPage(page, new TaskCursor(last.getCreated_at(), last.getId()).encode());
+    }
+
+    @Transactional(readOnly = true)
+    public TaskListVersion getListVersion(UUID ownerId) {
+        return taskRepository.findListVersion(ownerId);
     }
 
-    public List<Task> getTasksForOwner(UUID ownerId) {
-        return taskRepository.findByOwnerIdOrderByCreatedAtDesc(ownerId);
+    @Transactional(readOnly = true)
+    public Optional<Long> getVersionForOwner(UUID ownerId, UUID taskId) {
+        return taskRepository.findVersion(taskId, ownerId);
     }
 
-    public Optional<Task> getTaskForOwner(UUID ownerId, UUID taskId) {
-        return taskRepository.findById(taskId)
-                .filter(t -> ownerId.equals(t.getOwnerId()));
+    /**
+     * Hands every task of the owner to the sink, one row at a time, in list order.
+     * Rows are projections, not entities, so the persistence context (and heap) stays flat
+     * regardless of how many tasks the owner has.
+     */
+    @Transactional(readOnly = true)
+    public void exportTasksForOwner(UUID ownerId, Consumer<TaskDto> sink) {
+        try (Stream<TaskDto> tasks = taskRepository.streamDtosByOwnerId(ownerId)) {
+            tasks.forEach(sink);
+        }
     }
 
-    public Optional<Task> updateTaskForOwner(UUID ownerId, UUID taskId, TaskCreateDto dto) {
-        return taskRepository.findById(taskId)
-                .filter(t -> ownerId.equals(t.getOwnerId()))
-                .map(t -> {
-                    t.setTitle(dto.getTitle());
-                    t.setDescription(dto.getDescription());
-                    t.setDueDate(dto.getDue_date());
+    @Transactional(readOnly = true)
+    public Optional<TaskDto> getTaskForOwner(UUID ownerId, UUID taskId) {
+        return taskRepository.findDtoByIdAndOwnerId(taskId, ownerId);
+    }
+
+    /**
+     * Owner-scoped update as one conditional statement; empty when the task does not exist
+     * or belongs to someone else. A non-null expectedVersion (from If-Match) makes the write
+     * conditional on the task still having that version; a mismatch throws PreconditionFailedException.
+     */
+    @Transactional
+    public Optional<Task> updateTaskForOwner(UUID ownerId, UUID taskId, TaskCreateDto dto, Long expectedVersion) {
+        Optional<Task> updated = taskRepository.updateOwned(ownerId, taskId, dto.getTitle(), dto.getDescription(),
+                dto.getDue_date(), OffsetDateTime.now(), expectedVersion);
+        if (updated.isEmpty()) {
+            checkVersion(ownerId, taskId, expectedVersion);
+            return Optional.empty();
+        }
+        publish(ownerId, taskId, TaskChangedEvent.Type.UPDATED);
+        return updated;
+    }
+
+    /**
+     * Partial update: only the fields present in the patch reach the UPDATE, and a patch that changes
+     * nothing performs no write at all (no new row version, no updated_at bump, no change event).
+     * Returns the task as it stands afterwards; empty when it does not exist or belongs to someone else.
+     * expectedVersion behaves as in {@link #updateTaskForOwner}.
+     */
+    @Transactional
+    public Optional<Task> patchTaskForOwner(UUID ownerId, UUID taskId, TaskPatch patch, Long expectedVersion) {
+        if (patch.hasTitle() && (patch.title() == null || patch.title().isBlank())) {
+            throw new IllegalArgumentException("title must not be blank");
+        }
+        Optional<Task> written = taskRepository.patchOwned(ownerId, taskId, patch, OffsetDateTime.now(), expectedVersion);
+        if (written.isPresent()) {
+            publish(ownerId, taskId, TaskChangedEvent.Type.UPDATED);
+            return written;
+        }
+        Optional<Task> current = taskRepository.findByIdAndOwnerId(taskId, ownerId);
+        if (current.isPresent() && expectedVersion != null && current.get().getVersion() != expectedVersion) {
+            throw new PreconditionFailedException("Task version does not match");
+        }
+        return current;
+    }
+
+    /**
+     * Owner-scoped delete as one conditional statement; "not found" comes from the affected-row count.
+     * A tombstone is written in the same transaction for delta sync.
+     * expectedVersion behaves as in {@link #updateTaskForOwner}.
+     */
+    @Transactional
+    public boolean deleteTaskForOwner(UUID ownerId, UUID taskId, Long expectedVersion) {
+        boolean deleted = taskRepository.deleteOwned(ownerId, taskId, expectedVersion) > 0;
+        if (!deleted) {
+            checkVersion(ownerId, taskId, expectedVersion);
+            return false;
+        }
+        entityManager.persist(new TaskTombstone(taskId, ownerId, OffsetDateTime.now()));
+        publish(ownerId, taskId, TaskChangedEvent.Type.DELETED);
+        return true;
+    }
+
+    /**
+     * Applies create/update/delete operations in request order within one transaction.
+     * Work is done in chunks: owned rows for a chunk are loaded with one IN query, changes are
+     * flushed as JDBC batches (ids are assigned client-side in Task.prePersist, so inserts batch too)
+     * and the persistence context is cleared before the next chunk.
+     * Invalid or not-owned operations are reported in their result and skipped; database errors
+     * roll back the whole batch.
+     */
+    @Transactional
+    public List<TaskBatchResultDto> applyBatch(UUID ownerId, List<TaskBatchOperationDto> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("operations must not be empty");
+        }
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new IllegalArgumentException("at most " + MAX_BATCH_OPERATIONS + " operations per batch");
+        }
+
+        List<TaskBatchResultDto> results = new ArrayList<>(operations.size());
+        for (int from = 0; from < operations.size(); from += BATCH_CHUNK_SIZE) {
+            int to = Math.min(from + BATCH_CHUNK_SIZE, operations.size());
+            applyChunk(ownerId, operations, from, to, results);
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return results;
+    }
+
+    private void applyChunk(UUID ownerId, List<TaskBatchOperationDto> operations, int from, int to,
+                            List<TaskBatchResultDto> results) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            TaskBatchOperationDto op = operations.get(i);
+            if (op != null && op.getId() != null) ids.add(op.getId());
+        }
+        Map<UUID, Task> owned = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Task t : taskRepository.findByOwnerIdAndIdIn(ownerId, ids)) {
+                owned.put(t.getId(), t);
+            }
+        }
+
+        for (int i = from; i < to; i++) {
+            TaskBatchOperationDto op = operations.get(i);
+            String kind = op != null && op.getOp() != null ? op.getOp().trim().toLowerCase() : null;
+            if (kind == null) {
+                results.add(new TaskBatchResultDto(i, null, null, 400, "op is required"));
+                continue;
+            }
+            switch (kind) {
+                case "create" -> {
+                    if (!hasTitle(op.getTask())) {
+                        results.add(new TaskBatchResultDto(i, kind, null, 400, "task.title is required"));
+                        continue;
+                    }
+                    Task t = new Task();
+                    t.setOwnerId(ownerId);
+                    t.setTitle(op.getTask().getTitle());
+                    t.setDescription(op.getTask().getDescription());
+                    t.setDueDate(op.getTask().getDue_date());
+                    entityManager.persist(t);
+                    publish(ownerId, t.getId(), TaskChangedEvent.Type.CREATED);
+                    results.add(new TaskBatchResultDto(i, kind, t.getId(), 201, null));
+                }
+                case "update" -> {
+                    if (op.getId() == null || !hasTitle(op.getTask())) {
+                        results.add(new TaskBatchResultDto(i, kind, op.getId(), 400, "id and task.title are required"));
+                        continue;
+                    }
+                    Task t = owned.get(op.getId());
+                    if (t == null) {
+                        results.add(new TaskBatchResultDto(i, kind, op.getId(), 404, "Task not found or not owned by user"));
+                        continue;
+                    }
+                    t.setTitle(op.getTask().getTitle());
+                    t.setDescription(op.getTask().getDescription());
+                    t.setDueDate(op.getTask().getDue_date());
                     t.setUpdatedAt(OffsetDateTime.now());
-                    return taskRepository.save(t);
-                });
+                    publish(ownerId, t.getId(), TaskChangedEvent.Type.UPDATED);
+                    results.add(new TaskBatchResultDto(i, kind, t.getId(), 200, null));
+                }
+                case "delete" -> {
+                    Task t = op.getId() != null ? owned.remove(op.getId()) : null;
+                    if (t == null) {
+                        results.add(new TaskBatchResultDto(i, kind, op.getId(), 404, "Task not found or not owned by user"));
+                        continue;
+                    }
+                    entityManager.remove(t);
+                    entityManager.persist(new TaskTombstone(t.getId(), ownerId, OffsetDateTime.now()));
+                    publish(ownerId, t.getId(), TaskChangedEvent.Type.DELETED);
+                    results.add(new TaskBatchResultDto(i, kind, t.getId(), 204, null));
+                }
+                default -> results.add(new TaskBatchResultDto(i, kind, op.getId(), 400, "Unknown op"));
+            }
+        }
+    }
+
+    /**
+     * Called after a conditional write matched no row: if the owned task exists, the miss was caused
+     * by the version check and the caller gets 412 instead of 404.
+     */
+    private void checkVersion(UUID ownerId, UUID taskId, Long expectedVersion) {
+        if (expectedVersion != null && taskRepository.findVersion(taskId, ownerId).isPresent()) {
+            throw new PreconditionFailedException("Task version does not match");
+        }
+    }
+
+    /** Listeners run after commit (see {@link TaskListCache#onTaskChanged}). */
+    private void publish(UUID ownerId, UUID taskId, TaskChangedEvent.Type type) {
+        eventPublisher.publishEvent(new TaskChangedEvent(ownerId, taskId, type));
     }
 
-    public boolean deleteTaskForOwner(UUID ownerId, UUID taskId) {
-        return taskRepository.findById(taskId)
-                .filter(t -> ownerId.equals(t.getOwnerId()))
-                .map(t -> {
-                    taskRepository.delete(t);
-                    return true;
-                }).orElse(false);
+    private static boolean hasTitle(TaskCreateDto dto) {
+        return dto != null && dto.getTitle() != null && !dto.getTitle().isBlank();
     }
 }
@@ -0,0 +1,101 @@
+package com.ph.services;
+
+import com.ph.config.DatabasePlatform;
+import com.ph.dto.TaskStatsDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.UUID;
+
+/**
+ * Per-owner task statistics.
+ * On Postgres they are read from the counters maintained by the V9 triggers: one primary-key
+ * lookup for the totals plus a sum over the owner's due_date histogram. Past due dates do not pile
+ * up in the histogram: a daily job (V17) folds dates before yesterday (UTC), which are overdue in
+ * every time zone, into task_stats.overdue_rolled, so the overdue sum covers a day or two of rows.
+ * Elsewhere (H2) the same buckets are aggregated from the tasks table.
+ */
+@Service
+public class TaskStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskStatsService.class);
+
+    private static final String TOTALS_SQL =
+            "SELECT total, no_due_date, overdue_rolled FROM public.task_stats WHERE owner_id = :ownerId";
+
+    private static final String BUCKETS_SQL =
+            "SELECT coalesce(sum(task_count) FILTER (WHERE due_date < :today), 0) AS overdue,"
+                    + " coalesce(sum(task_count) FILTER (WHERE due_date = :today), 0) AS due_today,"
+                    + " coalesce(sum(task_count) FILTER (WHERE due_date > :today AND due_date <= :weekEnd), 0) AS due_this_week"
+                    + " FROM public.task_due_date_counts WHERE owner_id = :ownerId";
+
+    private static final String FALLBACK_SQL =
+            "SELECT count(*) AS total,"
+                    + " coalesce(sum(CASE WHEN due_date IS NULL THEN 1 ELSE 0 END), 0) AS no_due_date,"
+                    + " coalesce(sum(CASE WHEN due_date < :today THEN 1 ELSE 0 END), 0) AS overdue,"
+                    + " coalesce(sum(CASE WHEN due_date = :today THEN 1 ELSE 0 END), 0) AS due_today,"
+                    + " coalesce(sum(CASE WHEN due_date > :today AND due_date <= :weekEnd THEN 1 ELSE 0 END), 0) AS due_this_week"
+                    + " FROM public.tasks WHERE owner_id = :ownerId";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    public TaskStatsService(NamedParameterJdbcTemplate jdbcTemplate, DatabasePlatform databasePlatform) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+    }
+
+    @Transactional(readOnly = true)
+    public TaskStatsDto getStatsForOwner(UUID ownerId, LocalDate today) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ownerId", ownerId)
+                .addValue("today", today)
+                .addValue("weekEnd", today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY)));
+
+        if (!databasePlatform.isPostgres()) {
+            return jdbcTemplate.queryForObject(FALLBACK_SQL, params, (rs, rowNum) -> new TaskStatsDto(
+                    rs.getLong("total"),
+                    rs.getLong("overdue"),
+                    rs.getLong("due_today"),
+                    rs.getLong("due_this_week"),
+                    rs.getLong("no_due_date")));
+        }
+
+        TaskStatsDto stats = jdbcTemplate.query(TOTALS_SQL, params, rs -> rs.next()
+                ? new TaskStatsDto(rs.getLong("total"), rs.getLong("overdue_rolled"), 0, 0, rs.getLong("no_due_date"))
+                : new TaskStatsDto());
+        jdbcTemplate.query(BUCKETS_SQL, params, rs -> {
+            stats.setOverdue(stats.getOverdue() + rs.getLong("overdue"));
+            stats.setDue_today(rs.getLong("due_today"));
+            stats.setDue_this_week(rs.getLong("due_this_week"));
+        });
+        return stats;
+    }
+
+    /**
+     * Folds histogram rows for due dates before yesterday (UTC) into the rolled overdue counter. Safe to
+     * run on every node at once; rows written to past dates in the meantime are picked up on the next run.
+     */
+    @Scheduled(cron = "${tasks.stats.roll-cron:0 10 0 * * *}", zone = "UTC")
+    public void rollOverdue() {
+        if (!databasePlatform.isPostgres()) {
+            return;
+        }
+        // The earliest local date anywhere (UTC-12) is yesterday in UTC: anything before it is overdue for every tz.
+        LocalDate before = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        Long rolled = jdbcTemplate.queryForObject("SELECT public.task_stats_roll_overdue(:before)",
+                new MapSqlParameterSource("before", before), Long.class);
+        if (rolled != null && rolled > 0) {
+            log.info("Rolled {} due-date buckets before {} into the overdue counters", rolled, before);
+        }
+    }
+}
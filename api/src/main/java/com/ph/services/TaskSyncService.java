@@ -0,0 +1,99 @@
+package com.ph.services;
+
+import com.ph.dto.TaskChangesDto;
+import com.ph.repositories.TaskRepository;
+import com.ph.repositories.TaskTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Incremental sync: tasks created/updated and tombstones written after a token.
+ * Cost is proportional to the number of changes, not to the size of the owner's list.
+ */
+@Service
+public class TaskSyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskSyncService.class);
+
+    private final TaskRepository taskRepository;
+    private final TaskTombstoneRepository tombstoneRepository;
+    private final Duration overlap;
+    private final Duration tombstoneRetention;
+
+    public TaskSyncService(TaskRepository taskRepository,
+                           TaskTombstoneRepository tombstoneRepository,
+                           @Value("${tasks.sync.overlap:PT5S}") Duration overlap,
+                           @Value("${tasks.sync.tombstone-retention:P30D}") Duration tombstoneRetention) {
+        this.taskRepository = taskRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.overlap = overlap;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    /**
+     * Changes since the given token, or the full list (reset) when there is no token or it predates
+     * the tombstone retention window.
+     * The returned token trails the read by the overlap window so rows stamped by transactions
+     * still in flight during this read are picked up next time; clients may therefore see the
+     * same change twice and must apply changes idempotently.
+     */
+    @Transactional(readOnly = true)
+    public TaskChangesDto getChangesForOwner(UUID ownerId, String token) {
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime since = token == null || token.isBlank() ? null : decodeToken(token);
+
+        TaskChangesDto dto = new TaskChangesDto();
+        if (since == null || since.isBefore(now.minus(tombstoneRetention))) {
+            dto.setChanged(taskRepository.findDtosByOwnerId(ownerId));
+            dto.setDeleted(List.of());
+            dto.setReset(true);
+        } else {
+            dto.setChanged(taskRepository.findDtosChangedSince(ownerId, since));
+            dto.setDeleted(tombstoneRepository.findDeletedTaskIdsSince(ownerId, since));
+            dto.setReset(false);
+        }
+        dto.setNext_token(encodeToken(now.minus(overlap)));
+        return dto;
+    }
+
+    /** Drops tombstones older than the retention window; older tokens get a reset instead. */
+    @Scheduled(fixedDelayString = "${tasks.sync.prune-interval:PT1H}")
+    @Transactional
+    public void pruneTombstones() {
+        int removed = tombstoneRepository.deleteOlderThan(OffsetDateTime.now().minus(tombstoneRetention));
+        if (removed > 0) {
+            log.info("Pruned {} task tombstones", removed);
+        }
+    }
+
+    private static String encodeToken(OffsetDateTime since) {
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, since.toInstant());
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(micros).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static OffsetDateTime decodeToken(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+        long micros;
+        try {
+            micros = Long.parseLong(raw);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Malformed sync token", ex);
+        }
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS).atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ph.services;
+
+import com.ph.security.TokenRevocationList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Persists access-token revocations in revoked_tokens (V16) and keeps {@link TokenRevocationList} in step
+ * with it: loaded on startup, then every auth.revocation.refresh-interval expired rows are deleted and the
+ * table is re-read, which also picks up revocations made on other nodes.
+ */
+@Service
+public class TokenRevocationService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TokenRevocationList revocationList;
+    private volatile boolean running;
+
+    public TokenRevocationService(JdbcTemplate jdbcTemplate, TokenRevocationList revocationList) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.revocationList = revocationList;
+    }
+
+    /** Revokes the token with this jti until its expiry; effective on this node at once. */
+    public void revoke(String jti, Instant expiresAt) {
+        if (!expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO revoked_tokens (jti, expires_at) VALUES (?, ?)",
+                    jti, OffsetDateTime.ofInstant(expiresAt, ZoneOffset.UTC));
+        } catch (DuplicateKeyException ex) {
+            // already revoked
+        }
+        revocationList.add(jti, expiresAt);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.refresh-interval:PT1M}")
+    public void refresh() {
+        if (!running) {
+            return;
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        int pruned = jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at <= ?", now);
+        Map<String, Instant> loaded = new HashMap<>();
+        jdbcTemplate.query("SELECT jti, expires_at FROM revoked_tokens", rs -> {
+            loaded.put(rs.getString("jti"), rs.getObject("expires_at", OffsetDateTime.class).toInstant());
+        });
+        revocationList.retainUnexpired(loaded, now.toInstant());
+        if (pruned > 0) {
+            log.debug("Pruned {} expired token revocations, {} active", pruned, revocationList.size());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        refresh();
+        log.info("Loaded {} token revocations", revocationList.size());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,5 @@
+-- V10__add_tasks_version.sql
+-- Optimistic concurrency: every write bumps version; clients send it back in If-Match.
+
+ALTER TABLE public.tasks
+    ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,28 @@
+-- V11__notify_task_changes.sql
+-- Publishes every committed task change on the task_changes channel for the live feed
+-- (GET /api/tasks/stream). Payload: "<owner_id>:<task_id>:<INSERT|UPDATE|DELETE>".
+-- A trigger rather than application code, so direct writes (e.g. through the Supabase REST API)
+-- reach subscribers too. Notifications are delivered only when the transaction commits.
+
+CREATE OR REPLACE FUNCTION public.tasks_notify_change()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+DECLARE
+    r record;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        r := OLD;
+    ELSE
+        r := NEW;
+    END IF;
+    PERFORM pg_notify('task_changes', r.owner_id::text || ':' || r.id::text || ':' || TG_OP);
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS tasks_notify_change ON public.tasks;
+
+CREATE TRIGGER tasks_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON public.tasks
+    FOR EACH ROW EXECUTE FUNCTION public.tasks_notify_change();
@@ -0,0 +1,23 @@
+-- V12__suppress_task_notify_for_bulk_writes.sql
+-- Bulk writers (POST /api/tasks/import) run SET LOCAL tasks.bulk_write = 'on' so COPY of millions of rows
+-- does not queue one notification per row; they send a single "<owner_id>:*:BULK" notification instead.
+
+CREATE OR REPLACE FUNCTION public.tasks_notify_change()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+DECLARE
+    r record;
+BEGIN
+    IF current_setting('tasks.bulk_write', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        r := OLD;
+    ELSE
+        r := NEW;
+    END IF;
+    PERFORM pg_notify('task_changes', r.owner_id::text || ':' || r.id::text || ':' || TG_OP);
+    RETURN NULL;
+END;
+$$;
@@ -0,0 +1,7 @@
+-- V13__add_tasks_updated_at_index.sql
+-- Lets the archival job (V14) find old tasks across owners without scanning by owner.
+-- CONCURRENTLY, so writes to tasks continue while it builds (Flyway runs this script outside a transaction).
+-- Partitioning tasks by owner is not part of the automatic chain: it copies the whole table, so an
+-- operator runs it when convenient, see db/operator/partition_tasks_by_owner.sql.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_updated_at ON public.tasks (updated_at);
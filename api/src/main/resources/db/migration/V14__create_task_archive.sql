@@ -0,0 +1,30 @@
+-- V14__create_task_archive.sql
+-- Cold storage for tasks not updated within tasks.archive.max-age, moved here by TaskArchiveService and
+-- read through GET /api/tasks/archive. Rows are never updated, so pages are packed full (fillfactor 100),
+-- and toast_tuple_target makes Postgres try to compress any row over 128 bytes instead of only ~2 KB ones;
+-- text columns use lz4. Only the keyset index used for paging is kept.
+
+CREATE TABLE IF NOT EXISTS public.task_archive (
+                                                  id uuid PRIMARY KEY,
+                                                  owner_id uuid NOT NULL,
+                                                  title text COMPRESSION lz4 NOT NULL,
+                                                  description text COMPRESSION lz4,
+                                                  due_date date,
+                                                  created_at timestamptz NOT NULL,
+                                                  updated_at timestamptz NOT NULL,
+                                                  archived_at timestamptz NOT NULL DEFAULT now(),
+                                                  CONSTRAINT fk_task_archive_owner_profile FOREIGN KEY(owner_id) REFERENCES public.profiles(id) ON DELETE CASCADE
+) WITH (fillfactor = 100, toast_tuple_target = 128);
+
+CREATE INDEX IF NOT EXISTS idx_task_archive_owner_created_at_id
+    ON public.task_archive (owner_id, created_at DESC, id);
+
+-- Same row-level security as tasks: owners only see their own archived tasks.
+ALTER TABLE public.task_archive ENABLE ROW LEVEL SECURITY;
+
+DROP POLICY IF EXISTS select_own_task_archive ON public.task_archive;
+
+CREATE POLICY select_own_task_archive
+    ON public.task_archive
+    FOR SELECT
+    USING (auth.uid() = owner_id);
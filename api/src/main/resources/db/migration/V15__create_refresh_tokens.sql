@@ -0,0 +1,15 @@
+-- V15__create_refresh_tokens.sql
+-- Opaque refresh tokens exchanged at POST /api/auth/refresh for a new access token without a password check.
+-- Only a digest is stored: the first 128 bits of SHA-256(token), held in a uuid column so a row is three
+-- fixed-width fields and an exchange is one primary-key lookup. Tokens are single-use (rotated on every
+-- exchange); expired rows are deleted by RefreshTokenService.
+
+CREATE TABLE IF NOT EXISTS public.refresh_tokens (
+                                                    token_hash uuid PRIMARY KEY,
+                                                    user_id uuid NOT NULL,
+                                                    expires_at timestamptz NOT NULL,
+                                                    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY(user_id) REFERENCES auth.users(id) ON DELETE CASCADE
+);
+
+-- Only the API reads this table: RLS with no policies hides it from PostgREST clients.
+ALTER TABLE public.refresh_tokens ENABLE ROW LEVEL SECURITY;
@@ -0,0 +1,12 @@
+-- V16__create_revoked_tokens.sql
+-- Access tokens revoked before their exp (logout), by jti. Every node loads this table into
+-- TokenRevocationList at startup and re-reads it periodically; rows are deleted once the token has expired,
+-- so the table only ever holds tokens that would otherwise still be valid.
+
+CREATE TABLE IF NOT EXISTS public.revoked_tokens (
+                                                    jti text PRIMARY KEY,
+                                                    expires_at timestamptz NOT NULL
+);
+
+-- Only the API reads this table: RLS with no policies hides it from PostgREST clients.
+ALTER TABLE public.revoked_tokens ENABLE ROW LEVEL SECURITY;
@@ -0,0 +1,37 @@
+-- V17__roll_overdue_task_stats.sql
+-- Keeps the overdue read of GET /api/tasks/stats from growing with an owner's history.
+-- A due date before yesterday (UTC) is in the past in every time zone, so its tasks are overdue
+-- whatever tz the caller asks for. task_stats_roll_overdue folds such histogram rows into
+-- task_stats.overdue_rolled; the read adds that counter to the few histogram rows still below today.
+-- The V9 triggers are unchanged: a write to a rolled date recreates a histogram row (possibly with a
+-- negative count), which the read still sums correctly and the next roll folds in.
+
+ALTER TABLE public.task_stats
+    ADD COLUMN IF NOT EXISTS overdue_rolled bigint NOT NULL DEFAULT 0;
+
+-- Moves every histogram row with due_date < p_before into task_stats.overdue_rolled.
+-- Idempotent, so every node may run it; returns the number of histogram rows folded.
+CREATE OR REPLACE FUNCTION public.task_stats_roll_overdue(p_before date)
+    RETURNS bigint
+    LANGUAGE sql
+    SECURITY DEFINER
+    SET search_path = public
+AS $$
+    WITH rolled AS (
+        DELETE FROM public.task_due_date_counts
+        WHERE due_date < p_before
+        RETURNING owner_id, task_count
+    ), per_owner AS (
+        SELECT owner_id, sum(task_count) AS n, count(*) AS buckets
+        FROM rolled
+        GROUP BY owner_id
+    ), applied AS (
+        INSERT INTO public.task_stats AS s (owner_id, overdue_rolled)
+        SELECT owner_id, n FROM per_owner
+        ON CONFLICT (owner_id) DO UPDATE
+            SET overdue_rolled = s.overdue_rolled + EXCLUDED.overdue_rolled
+    )
+    SELECT coalesce(sum(buckets), 0)::bigint FROM per_owner;
+$$;
+
+SELECT public.task_stats_roll_overdue(((now() AT TIME ZONE 'UTC')::date - 1));
@@ -0,0 +1,21 @@
+-- V18__add_refresh_token_families.sql
+-- Rotation used to delete the exchanged row and issue a fresh ttl, so a session never ended and a stolen
+-- token that was replayed went unnoticed. Now every token carries its login's family and session end, and
+-- an exchanged token is only marked used (kept until expires_at): presenting it again deletes the family.
+
+ALTER TABLE public.refresh_tokens
+    ADD COLUMN IF NOT EXISTS family_id uuid,
+    ADD COLUMN IF NOT EXISTS session_expires_at timestamptz,
+    ADD COLUMN IF NOT EXISTS used_at timestamptz;
+
+-- Existing tokens become sessions of their own that end when the token does.
+UPDATE public.refresh_tokens
+SET family_id = gen_random_uuid(),
+    session_expires_at = expires_at
+WHERE family_id IS NULL;
+
+ALTER TABLE public.refresh_tokens
+    ALTER COLUMN family_id SET NOT NULL,
+    ALTER COLUMN session_expires_at SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family_id ON public.refresh_tokens (family_id);
@@ -0,0 +1,8 @@
+-- V6__add_tasks_owner_created_at_index.sql
+-- Composite index backing keyset pagination of GET /api/tasks:
+-- each page is a single bounded range scan over (owner_id, created_at DESC, id).
+CREATE INDEX IF NOT EXISTS idx_tasks_owner_created_at_id
+    ON public.tasks (owner_id, created_at DESC, id);
+
+-- The composite index has owner_id as its leading column, so it also serves plain owner lookups.
+DROP INDEX IF EXISTS public.idx_tasks_owner_id;
@@ -0,0 +1,25 @@
+-- V7__create_task_tombstones.sql
+-- Delta sync (GET /api/tasks/changes): deletions are recorded as tombstones so clients can
+-- drop tasks they already have, and (owner_id, updated_at) makes "changed since" an index range scan.
+
+CREATE TABLE IF NOT EXISTS public.task_tombstones (
+                                                     task_id uuid PRIMARY KEY,
+                                                     owner_id uuid NOT NULL,
+                                                     deleted_at timestamptz NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_task_tombstones_owner_deleted_at
+    ON public.task_tombstones (owner_id, deleted_at);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_owner_updated_at
+    ON public.tasks (owner_id, updated_at);
+
+-- Same row-level security as tasks: owners only see their own tombstones.
+ALTER TABLE public.task_tombstones ENABLE ROW LEVEL SECURITY;
+
+DROP POLICY IF EXISTS select_own_task_tombstones ON public.task_tombstones;
+
+CREATE POLICY select_own_task_tombstones
+    ON public.task_tombstones
+    FOR SELECT
+    USING (auth.uid() = owner_id);
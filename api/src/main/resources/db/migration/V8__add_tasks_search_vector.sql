@@ -0,0 +1,17 @@
+-- V8__add_tasks_search_vector.sql
+-- Full-text search for GET /api/tasks/search.
+-- 'simple' config: no language-specific stemming, so results do not depend on the language a task is written in.
+-- Title terms are weighted A, description terms B, which ts_rank uses for ordering.
+ALTER TABLE public.tasks
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+            setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+        ) STORED;
+
+-- btree_gin lets owner_id live in the same GIN index, so a search only visits the caller's postings
+-- instead of every owner's matches for a common word.
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_owner_search_vector
+    ON public.tasks USING GIN (owner_id, search_vector);
@@ -0,0 +1,135 @@
+-- V9__create_task_stats.sql
+-- Incrementally maintained per-owner task statistics for GET /api/tasks/stats.
+-- task_stats holds the owner's totals; task_due_date_counts is a due_date histogram from which
+-- the date-relative buckets (overdue, due today, due this week) are summed at read time.
+-- Both are kept current by statement-level triggers on public.tasks, in the same transaction as
+-- the change, so every write path (single, batch, import, archival, cascades) is covered.
+
+CREATE TABLE IF NOT EXISTS public.task_stats (
+                                               owner_id uuid PRIMARY KEY,
+                                               total bigint NOT NULL DEFAULT 0,
+                                               no_due_date bigint NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS public.task_due_date_counts (
+                                                         owner_id uuid NOT NULL,
+                                                         due_date date NOT NULL,
+                                                         task_count bigint NOT NULL,
+                                                         PRIMARY KEY (owner_id, due_date)
+);
+
+-- Applies signed per-(owner, due_date) deltas to both tables.
+-- SECURITY DEFINER so writes through RLS-restricted roles can still maintain the counters.
+CREATE OR REPLACE FUNCTION public.task_stats_apply(p_owner uuid[], p_due date[], p_n bigint[])
+    RETURNS void
+    LANGUAGE sql
+    SECURITY DEFINER
+    SET search_path = public
+AS $$
+    INSERT INTO public.task_stats AS s (owner_id, total, no_due_date)
+    SELECT x.o, sum(x.n), coalesce(sum(x.n) FILTER (WHERE x.d IS NULL), 0)
+    FROM unnest(p_owner, p_due, p_n) AS x(o, d, n)
+    GROUP BY x.o
+    ON CONFLICT (owner_id) DO UPDATE
+        SET total = s.total + EXCLUDED.total,
+            no_due_date = s.no_due_date + EXCLUDED.no_due_date;
+
+    INSERT INTO public.task_due_date_counts AS c (owner_id, due_date, task_count)
+    SELECT x.o, x.d, sum(x.n)
+    FROM unnest(p_owner, p_due, p_n) AS x(o, d, n)
+    WHERE x.d IS NOT NULL
+    GROUP BY x.o, x.d
+    ON CONFLICT (owner_id, due_date) DO UPDATE
+        SET task_count = c.task_count + EXCLUDED.task_count;
+
+    DELETE FROM public.task_due_date_counts c
+    USING unnest(p_owner, p_due) AS x(o, d)
+    WHERE c.owner_id = x.o AND c.due_date = x.d AND c.task_count = 0;
+$$;
+
+CREATE OR REPLACE FUNCTION public.task_stats_on_insert()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    PERFORM public.task_stats_apply(array_agg(d.owner_id), array_agg(d.due_date), array_agg(d.n))
+    FROM (SELECT owner_id, due_date, count(*) AS n FROM new_rows GROUP BY owner_id, due_date) d;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION public.task_stats_on_delete()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    PERFORM public.task_stats_apply(array_agg(d.owner_id), array_agg(d.due_date), array_agg(d.n))
+    FROM (SELECT owner_id, due_date, -count(*) AS n FROM old_rows GROUP BY owner_id, due_date) d;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION public.task_stats_on_update()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    PERFORM public.task_stats_apply(array_agg(d.owner_id), array_agg(d.due_date), array_agg(d.n))
+    FROM (SELECT owner_id, due_date, sum(n)::bigint AS n
+          FROM (SELECT owner_id, due_date, 1::bigint AS n FROM new_rows
+                UNION ALL
+                SELECT owner_id, due_date, -1::bigint FROM old_rows) x
+          GROUP BY owner_id, due_date
+          HAVING sum(n) <> 0) d;
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS tasks_stats_insert ON public.tasks;
+DROP TRIGGER IF EXISTS tasks_stats_delete ON public.tasks;
+DROP TRIGGER IF EXISTS tasks_stats_update ON public.tasks;
+
+CREATE TRIGGER tasks_stats_insert
+    AFTER INSERT ON public.tasks
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION public.task_stats_on_insert();
+
+CREATE TRIGGER tasks_stats_delete
+    AFTER DELETE ON public.tasks
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION public.task_stats_on_delete();
+
+CREATE TRIGGER tasks_stats_update
+    AFTER UPDATE ON public.tasks
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION public.task_stats_on_update();
+
+-- Backfill from existing rows.
+INSERT INTO public.task_stats (owner_id, total, no_due_date)
+SELECT owner_id, count(*), count(*) FILTER (WHERE due_date IS NULL)
+FROM public.tasks
+GROUP BY owner_id
+ON CONFLICT (owner_id) DO NOTHING;
+
+INSERT INTO public.task_due_date_counts (owner_id, due_date, task_count)
+SELECT owner_id, due_date, count(*)
+FROM public.tasks
+WHERE due_date IS NOT NULL
+GROUP BY owner_id, due_date
+ON CONFLICT (owner_id, due_date) DO NOTHING;
+
+ALTER TABLE public.task_stats ENABLE ROW LEVEL SECURITY;
+ALTER TABLE public.task_due_date_counts ENABLE ROW LEVEL SECURITY;
+
+DROP POLICY IF EXISTS select_own_task_stats ON public.task_stats;
+DROP POLICY IF EXISTS select_own_task_due_date_counts ON public.task_due_date_counts;
+
+CREATE POLICY select_own_task_stats
+    ON public.task_stats
+    FOR SELECT
+    USING (auth.uid() = owner_id);
+
+CREATE POLICY select_own_task_due_date_counts
+    ON public.task_due_date_counts
+    FOR SELECT
+    USING (auth.uid() = owner_id);
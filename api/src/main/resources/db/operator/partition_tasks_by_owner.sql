@@ -0,0 +1,194 @@
+-- partition_tasks_by_owner.sql
+-- Rebuilds public.tasks as a hash-partitioned table on owner_id (16 partitions), online.
+-- Every hot-path query filters on owner_id, so each one is pruned to a single partition; vacuum,
+-- index builds and bloat are per partition rather than over one heap of the whole table.
+--
+-- Not a Flyway migration: run by an operator against the primary, after V17, with
+--   psql "$DATABASE_URL" -v ON_ERROR_STOP=1 -f partition_tasks_by_owner.sql
+-- Steps 1-3 run alongside normal traffic: a shadow table is kept in sync by a trigger (dual write) while
+-- the existing rows are copied in short batches. Only step 4 locks tasks, for the renames, not a copy.
+-- Until step 4 commits, re-running the script is safe and nothing changes for the application; after it,
+-- the script refuses to run.
+-- Writes to tasks cost about twice as much while the sync trigger is in place.
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'public.tasks'::regclass) THEN
+        RAISE EXCEPTION 'public.tasks is already partitioned';
+    END IF;
+END;
+$$;
+
+-- 1. Shadow table. The partition key must be part of the primary key; ids stay unique as they are random UUIDs.
+CREATE TABLE IF NOT EXISTS public.tasks_partitioned (
+                              id uuid NOT NULL DEFAULT gen_random_uuid(),
+                              owner_id uuid NOT NULL,
+                              title text NOT NULL,
+                              description text,
+                              due_date date,
+                              created_at timestamptz NOT NULL DEFAULT now(),
+                              updated_at timestamptz NOT NULL DEFAULT now(),
+                              version bigint NOT NULL DEFAULT 0,
+                              search_vector tsvector
+                                  GENERATED ALWAYS AS (
+                                      setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+                                      setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+                                  ) STORED,
+                              CONSTRAINT tasks_partitioned_pkey PRIMARY KEY (id, owner_id),
+                              CONSTRAINT fk_tasks_partitioned_owner_profile FOREIGN KEY(owner_id) REFERENCES public.profiles(id) ON DELETE CASCADE
+) PARTITION BY HASH (owner_id);
+
+DO $$
+BEGIN
+    FOR i IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS public.tasks_p%s PARTITION OF public.tasks_partitioned FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+                       lpad(i::text, 2, '0'), i);
+    END LOOP;
+END;
+$$;
+
+-- Same indexes as tasks (V6, V7, V8, V13), built while the table is still empty; renamed in step 4.
+CREATE INDEX IF NOT EXISTS idx_tasks_partitioned_owner_created_at_id ON public.tasks_partitioned (owner_id, created_at DESC, id);
+CREATE INDEX IF NOT EXISTS idx_tasks_partitioned_owner_updated_at ON public.tasks_partitioned (owner_id, updated_at);
+CREATE INDEX IF NOT EXISTS idx_tasks_partitioned_owner_search_vector ON public.tasks_partitioned USING GIN (owner_id, search_vector);
+CREATE INDEX IF NOT EXISTS idx_tasks_partitioned_updated_at ON public.tasks_partitioned (updated_at);
+
+-- 2. Dual write: from here on every change to tasks is applied to the shadow table in the same transaction.
+-- The V9 stats and V11 notify triggers stay on tasks only, so nothing is counted or announced twice.
+CREATE OR REPLACE FUNCTION public.tasks_partitioned_sync()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM public.tasks_partitioned WHERE id = OLD.id AND owner_id = OLD.owner_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO public.tasks_partitioned (id, owner_id, title, description, due_date, created_at, updated_at, version)
+        VALUES (NEW.id, NEW.owner_id, NEW.title, NEW.description, NEW.due_date, NEW.created_at, NEW.updated_at, NEW.version)
+        ON CONFLICT (id, owner_id) DO UPDATE
+            SET title = EXCLUDED.title,
+                description = EXCLUDED.description,
+                due_date = EXCLUDED.due_date,
+                created_at = EXCLUDED.created_at,
+                updated_at = EXCLUDED.updated_at,
+                version = EXCLUDED.version;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS tasks_partitioned_sync ON public.tasks;
+
+CREATE TRIGGER tasks_partitioned_sync
+    AFTER INSERT OR UPDATE OR DELETE ON public.tasks
+    FOR EACH ROW EXECUTE FUNCTION public.tasks_partitioned_sync();
+
+-- 3. Backfill in id order, one short transaction per batch. FOR SHARE makes a batch wait for writers
+-- still holding its rows, so a row deleted meanwhile is skipped rather than copied after its delete;
+-- rows the trigger already wrote are newer and are kept (DO NOTHING).
+CREATE OR REPLACE PROCEDURE public.tasks_partitioned_backfill(p_batch_size int DEFAULT 5000)
+    LANGUAGE plpgsql
+AS $$
+DECLARE
+    last_id uuid := '00000000-0000-0000-0000-000000000000';
+    next_id uuid;
+BEGIN
+    LOOP
+        WITH batch AS (
+            SELECT id, owner_id, title, description, due_date, created_at, updated_at, version
+            FROM public.tasks
+            WHERE id > last_id
+            ORDER BY id
+            LIMIT p_batch_size
+            FOR SHARE
+        ), copied AS (
+            INSERT INTO public.tasks_partitioned (id, owner_id, title, description, due_date, created_at, updated_at, version)
+            SELECT id, owner_id, title, description, due_date, created_at, updated_at, version FROM batch
+            ON CONFLICT (id, owner_id) DO NOTHING
+        )
+        SELECT id INTO next_id FROM batch ORDER BY id DESC LIMIT 1;
+        EXIT WHEN next_id IS NULL;
+        last_id := next_id;
+        COMMIT;
+    END LOOP;
+END;
+$$;
+
+CALL public.tasks_partitioned_backfill();
+
+-- 4. Swap. The sync trigger has kept both tables equal, so this only renames, moves triggers and policies.
+BEGIN;
+SET LOCAL lock_timeout = '5s';
+LOCK TABLE public.tasks IN ACCESS EXCLUSIVE MODE;
+
+DROP TRIGGER tasks_partitioned_sync ON public.tasks;
+DROP TRIGGER IF EXISTS tasks_notify_change ON public.tasks;
+DROP TRIGGER IF EXISTS tasks_stats_insert ON public.tasks;
+DROP TRIGGER IF EXISTS tasks_stats_delete ON public.tasks;
+DROP TRIGGER IF EXISTS tasks_stats_update ON public.tasks;
+
+ALTER TABLE public.tasks RENAME TO tasks_unpartitioned;
+ALTER INDEX public.tasks_pkey RENAME TO tasks_unpartitioned_pkey;
+ALTER INDEX public.idx_tasks_owner_created_at_id RENAME TO idx_tasks_unpartitioned_owner_created_at_id;
+ALTER INDEX public.idx_tasks_owner_updated_at RENAME TO idx_tasks_unpartitioned_owner_updated_at;
+ALTER INDEX public.idx_tasks_owner_search_vector RENAME TO idx_tasks_unpartitioned_owner_search_vector;
+ALTER INDEX public.idx_tasks_updated_at RENAME TO idx_tasks_unpartitioned_updated_at;
+
+ALTER TABLE public.tasks_partitioned RENAME TO tasks;
+ALTER TABLE public.tasks RENAME CONSTRAINT tasks_partitioned_pkey TO tasks_pkey;
+ALTER TABLE public.tasks RENAME CONSTRAINT fk_tasks_partitioned_owner_profile TO fk_owner_profile;
+ALTER INDEX public.idx_tasks_partitioned_owner_created_at_id RENAME TO idx_tasks_owner_created_at_id;
+ALTER INDEX public.idx_tasks_partitioned_owner_updated_at RENAME TO idx_tasks_owner_updated_at;
+ALTER INDEX public.idx_tasks_partitioned_owner_search_vector RENAME TO idx_tasks_owner_search_vector;
+ALTER INDEX public.idx_tasks_partitioned_updated_at RENAME TO idx_tasks_updated_at;
+
+-- Triggers from V9 and V11; functions are unchanged.
+CREATE TRIGGER tasks_notify_change
+    AFTER INSERT OR UPDATE OR DELETE ON public.tasks
+    FOR EACH ROW EXECUTE FUNCTION public.tasks_notify_change();
+
+CREATE TRIGGER tasks_stats_insert
+    AFTER INSERT ON public.tasks
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION public.task_stats_on_insert();
+
+CREATE TRIGGER tasks_stats_delete
+    AFTER DELETE ON public.tasks
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION public.task_stats_on_delete();
+
+CREATE TRIGGER tasks_stats_update
+    AFTER UPDATE ON public.tasks
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION public.task_stats_on_update();
+
+-- Row-level security from V5. Queries go through the parent, so policies on it cover every partition.
+ALTER TABLE public.tasks ENABLE ROW LEVEL SECURITY;
+
+CREATE POLICY select_own_tasks
+    ON public.tasks
+    FOR SELECT
+    USING (auth.uid() = owner_id);
+
+CREATE POLICY insert_own_tasks
+    ON public.tasks
+    FOR INSERT
+    WITH CHECK (auth.uid() = owner_id);
+
+CREATE POLICY update_own_tasks
+    ON public.tasks
+    FOR UPDATE
+    USING (auth.uid() = owner_id);
+
+CREATE POLICY delete_own_tasks
+    ON public.tasks
+    FOR DELETE
+    USING (auth.uid() = owner_id);
+
+COMMIT;
+
+-- 5. Once the application is verified on the partitioned table (the old one is no longer written):
+-- DROP TABLE public.tasks_unpartitioned;
+-- DROP PROCEDURE public.tasks_partitioned_backfill(int);
+-- DROP FUNCTION public.tasks_partitioned_sync();
@@ -0,0 +1,153 @@
+package com.ph.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the limiter with many clients against a local H2 database whose connections can be made slow,
+ * standing in for a Postgres that degrades. When it slows down the limit must shrink and the surplus
+ * must be refused at once instead of waiting on the database. The baseline and drop rules are driven with
+ * synthetic samples.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final int CLIENTS = 64;
+    private static final long PHASE_MS = 1_500;
+    private static final long MS = 1_000_000;
+
+    private volatile long delayMs;
+
+    @Test
+    void limitShrinksAndExcessIsRejectedFastWhenDatabaseSlowsDown() throws Exception {
+        DriverManagerDataSource h2 = new DriverManagerDataSource("jdbc:h2:mem:limiter;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(new DelegatingDataSource(h2) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getConnection();
+            }
+        });
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 200);
+
+        delayMs = 20;
+        Phase fast = drive(limiter, jdbc);
+        delayMs = 200;
+        Phase slow = drive(limiter, jdbc);
+
+        assertTrue(slow.limit < fast.limit, "limit should shrink when latency rises");
+        assertTrue(slow.rejected > 0, "excess load should be shed");
+        assertTrue(slow.slowestRejectionNanos < 50_000_000L, "rejection must not wait for the database");
+    }
+
+    @Test
+    void limitShrinksOnSlowdownEvenWhenLightlyLoaded() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 2, 200);
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire().orElseThrow().success();
+        }
+        int before = limiter.getLimit();
+        // One call in flight at a time: far below half the limit, so no growth, but the slowdown must count.
+        for (int i = 0; i < 20; i++) {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire().orElseThrow();
+            Thread.sleep(5);
+            permit.success();
+        }
+        assertTrue(limiter.getLimit() < before, "limit should shrink when latency rises under light load");
+    }
+
+    @Test
+    void sustainedSlowdownDoesNotBecomeTheBaselineWithinAWindow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 200);
+        long now = 0;
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(now += MS, 10 * MS, 20, false);
+        }
+        assertTrue(limiter.getLimit() > 20, "limit should grow while latency is at the baseline");
+        // Ten times slower for most of a window, at full load: the limit must go down and stay down.
+        long slowUntil = now + AdaptiveConcurrencyLimiter.BASELINE_WINDOW_NANOS - 1_000 * MS;
+        while (now < slowUntil) {
+            limiter.onSample(now += 10 * MS, 100 * MS, limiter.getLimit(), false);
+        }
+        assertEquals(2, limiter.getLimit(), "limit should stay at the minimum during the slowdown");
+
+        // Only a slowdown outlasting the current and the previous window becomes the new normal.
+        long adopted = now + 2 * AdaptiveConcurrencyLimiter.BASELINE_WINDOW_NANOS;
+        while (now < adopted) {
+            limiter.onSample(now += 10 * MS, 100 * MS, limiter.getLimit(), false);
+        }
+        assertTrue(limiter.getLimit() > 2, "limit should grow again once the slower latency is the baseline");
+    }
+
+    @Test
+    void limitDoesNotGrowWhileCallsAreDropped() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 200);
+        long now = 0;
+        int previous = limiter.getLimit();
+        for (int i = 0; i < 200; i++) {
+            // Fast, fully loaded samples that would grow the limit, with a drop every few calls.
+            limiter.onSample(now += MS, MS, limiter.getLimit(), i % 5 == 0);
+            assertTrue(limiter.getLimit() <= previous, "limit grew at sample " + i);
+            previous = limiter.getLimit();
+        }
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(now += MS, MS, limiter.getLimit(), false);
+        }
+        assertTrue(limiter.getLimit() > previous, "limit should grow again once drops stop");
+    }
+
+    private Phase drive(AdaptiveConcurrencyLimiter limiter, JdbcTemplate jdbc) throws Exception {
+        long rejectedBefore = limiter.getRejected();
+        AtomicLong slowestRejection = new AtomicLong();
+        long deadline = System.nanoTime() + PHASE_MS * 1_000_000;
+        List<Future<?>> clients = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.add(executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        Optional<AdaptiveConcurrencyLimiter.Permit> permit = limiter.tryAcquire();
+                        if (permit.isEmpty()) {
+                            slowestRejection.accumulateAndGet(System.nanoTime() - start, Math::max);
+                            Thread.sleep(5);
+                            continue;
+                        }
+                        try {
+                            jdbc.queryForObject("SELECT 1", Integer.class);
+                            permit.get().success();
+                        } catch (RuntimeException ex) {
+                            permit.get().ignore();
+                            throw ex;
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> client : clients) {
+                client.get();
+            }
+        }
+        return new Phase(limiter.getLimit(), limiter.getRejected() - rejectedBefore, slowestRejection.get());
+    }
+
+    private record Phase(int limit, long rejected, long slowestRejectionNanos) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.ph.config;
+
+import com.ph.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Metrics are not readable on the API port, not even with a valid user token; they are served on the
+ * management port only.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@ActiveProfiles("h2")
+class ManagementEndpointSecurityTest {
+
+    @LocalServerPort
+    private int apiPort;
+    @LocalManagementPort
+    private int managementPort;
+    @Autowired
+    private JwtService jwtService;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void metricsAreRefusedToApiUsers() throws Exception {
+        String token = jwtService.generateToken(UUID.randomUUID().toString());
+
+        assertEquals(200, get(apiPort, "/api/tasks", token));
+        assertRefused(get(apiPort, "/actuator/metrics", token));
+        assertRefused(get(apiPort, "/actuator/metrics/auth.login.rejected", token));
+    }
+
+    @Test
+    void metricsAndHealthAreServedOnTheManagementPort() throws Exception {
+        assertEquals(200, get(managementPort, "/actuator/metrics", null));
+        assertEquals(200, get(managementPort, "/actuator/health", null));
+    }
+
+    /** denyAll answers 403, which the (unauthenticated) error dispatch may turn into 401. */
+    private static void assertRefused(int status) {
+        assertTrue(status == 401 || status == 403, "expected 401 or 403 but was " + status);
+    }
+
+    private int get(int port, String path, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,132 @@
+package com.ph.config;
+
+import com.ph.services.RecentWriters;
+import com.ph.services.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routing between two local H2 databases, one standing in for the primary and one for a replica.
+ * Each holds a single row naming itself, so a query shows where it was served.
+ */
+class ReplicaRoutingTest {
+
+    private static final String ROUTED = TaskService.class.getName() + ".getVersionForOwner";
+
+    private DriverManagerDataSource primary;
+    private volatile boolean replicaDown;
+    private RecentWriters recentWriters;
+    private ReplicaDataSource replicaDataSource;
+    private JdbcTemplate jdbc;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        primary = database("jdbc:h2:mem:primary-" + suffix, "primary");
+        DelegatingDataSource replica = new DelegatingDataSource(database("jdbc:h2:mem:replica-" + suffix, "replica")) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (replicaDown) {
+                    throw new SQLTransientConnectionException("replica down");
+                }
+                return super.getConnection();
+            }
+        };
+        recentWriters = new RecentWriters(Duration.ofSeconds(5));
+        replicaDataSource = new ReplicaDataSource(primary, Map.of("replica-1", replica),
+                ReadReplicaConfig::isRouted, recentWriters, null);
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(replicaDataSource);
+        jdbc = new JdbcTemplate(routing);
+        transactionManager = new DataSourceTransactionManager(routing);
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void routedReadOnlyTransactionGoesToReplica() {
+        assertEquals("replica", served(ROUTED, true));
+    }
+
+    @Test
+    void writesAndUnroutedReadsGoToPrimary() {
+        assertEquals("primary", served(ROUTED, false));
+        assertEquals("primary", served("com.ph.services.TaskSyncService.getChangesForOwner", true));
+        // Fills TaskListCache, which a lagging replica must not do
+        assertEquals("primary", served(TaskService.class.getName() + ".getTasksForOwner", true));
+    }
+
+    @Test
+    void listVersionAndEveryBodyItTagsReadFromPrimary() {
+        // A body from a lagging replica under a newer ETag would stay in the client's cache until the next change
+        for (String method : List.of("getListVersion", "getTaskPageForOwner", "getTaskForOwner")) {
+            assertEquals("primary", served(TaskService.class.getName() + "." + method, true), method);
+        }
+    }
+
+    @Test
+    void unhealthyReplicaFallsBackToPrimaryUntilItRecovers() {
+        replicaDown = true;
+        replicaDataSource.checkHealth();
+        assertEquals("primary", served(ROUTED, true));
+
+        replicaDown = false;
+        replicaDataSource.checkHealth();
+        assertEquals("replica", served(ROUTED, true));
+    }
+
+    @Test
+    void recentWriterReadsFromPrimaryOthersFromReplica() {
+        UUID writer = UUID.randomUUID();
+        recentWriters.recordWrite(writer);
+
+        authenticate(writer);
+        assertEquals("primary", served(ROUTED, true));
+
+        authenticate(UUID.randomUUID());
+        assertEquals("replica", served(ROUTED, true));
+    }
+
+    private String served(String transactionName, boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setName(transactionName);
+        tx.setReadOnly(readOnly);
+        return tx.execute(status -> jdbc.queryForObject("SELECT name FROM served_by", String.class));
+    }
+
+    private static void authenticate(UUID userId) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId.toString(), null, List.of()));
+    }
+
+    private static DriverManagerDataSource database(String url, String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE served_by (name VARCHAR(20))");
+        jdbc.update("INSERT INTO served_by VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,87 @@
+package com.ph.repositories;
+
+import com.ph.model.Profile;
+import com.ph.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The H2 fallback of the owner-scoped update: the task it returns reflects the write, whether or not a copy
+ * was already loaded earlier in the same transaction, and a wrong owner or version writes nothing.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class TaskRepositoryUpdateTest {
+
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private ProfileRepository profileRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UUID ownerId;
+    private UUID taskId;
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void seed() {
+        ownerId = UUID.randomUUID();
+        Profile profile = new Profile();
+        profile.setId(ownerId);
+        profile.setEmail(ownerId + "@example.com");
+        profileRepository.save(profile);
+
+        Task task = new Task();
+        task.setOwnerId(ownerId);
+        task.setTitle("Before");
+        taskId = taskRepository.save(task).getId();
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void returnsTheWrittenRow() {
+        Task updated = tx.execute(status -> taskRepository.updateOwned(ownerId, taskId, "After", "text", null,
+                OffsetDateTime.now(), null).orElseThrow());
+
+        assertEquals("After", updated.getTitle());
+        assertEquals("text", updated.getDescription());
+        assertEquals(1, updated.getVersion());
+    }
+
+    @Test
+    void refreshesACopyAlreadyLoadedInTheTransaction() {
+        tx.executeWithoutResult(status -> {
+            Task loaded = taskRepository.findByIdAndOwnerId(taskId, ownerId).orElseThrow();
+            Task updated = taskRepository.updateOwned(ownerId, taskId, "After", null, null,
+                    OffsetDateTime.now(), loaded.getVersion()).orElseThrow();
+
+            assertSame(loaded, updated);
+            assertEquals("After", updated.getTitle());
+            assertEquals(1, updated.getVersion());
+        });
+    }
+
+    @Test
+    void wrongOwnerOrVersionWritesNothing() {
+        tx.executeWithoutResult(status -> {
+            assertTrue(taskRepository.updateOwned(UUID.randomUUID(), taskId, "After", null, null,
+                    OffsetDateTime.now(), null).isEmpty());
+            assertTrue(taskRepository.updateOwned(ownerId, taskId, "After", null, null,
+                    OffsetDateTime.now(), 7L).isEmpty());
+        });
+        assertEquals("Before", taskRepository.findById(taskId).orElseThrow().getTitle());
+    }
+}
@@ -0,0 +1,41 @@
+package com.ph.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Controllers taking an {@link AuthenticatedUser} argument receive the filter's principal through the full
+ * MVC stack, not the Authentication that request.getUserPrincipal() returns.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class AuthenticatedUserArgumentTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    void handlerReceivesTheTypedPrincipal() throws Exception {
+        String subject = UUID.randomUUID().toString();
+        String token = jwtService.generateToken(subject);
+
+        mockMvc.perform(get("/api/secure").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Hello, " + subject + "! You have accessed a secure endpoint."));
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,97 @@
+package com.ph.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The JWT filter with the verified-token cache: one token presented repeatedly, as a client does between
+ * logins, is verified once; a tampered copy is still refused; the principal is a typed AuthenticatedUser.
+ */
+class JwtFilterTest {
+
+    private static final String SECRET =
+            "dGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQ=";
+    private static final int REQUESTS = 1_000;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void repeatedTokenIsVerifiedOnceThenServedFromCache() throws Exception {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        JwtService jwtService = new JwtService(SECRET, 3_600_000, 10_000, meters);
+        SupabaseJwtAuthenticationFilter filter = new SupabaseJwtAuthenticationFilter(jwtService, new TokenRevocationList(1_000, 0.01));
+        String token = jwtService.generateToken(UUID.randomUUID().toString());
+
+        for (int i = 0; i < REQUESTS; i++) {
+            authenticate(filter, token);
+        }
+
+        assertEquals(1.0, meters.get("cache.gets").tags("cache", "jwt.verified", "result", "miss").functionCounter().count());
+        assertEquals(REQUESTS - 1.0, meters.get("cache.gets").tags("cache", "jwt.verified", "result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenAfterTheOriginalWasCached() {
+        JwtService jwtService = new JwtService(SECRET, 3_600_000, 10_000, new SimpleMeterRegistry());
+        String token = jwtService.generateToken(UUID.randomUUID().toString());
+        assertTrue(jwtService.isTokenValid(token));
+
+        int signature = token.lastIndexOf('.') + 1;
+        char first = token.charAt(signature);
+        String tampered = token.substring(0, signature) + (first == 'A' ? 'B' : 'A') + token.substring(signature + 1);
+        assertFalse(jwtService.isTokenValid(tampered));
+        assertTrue(jwtService.isTokenValid(token));
+    }
+
+    @Test
+    void filterSetsTypedPrincipalWithParsedUserId() throws Exception {
+        JwtService jwtService = new JwtService(SECRET, 3_600_000, 10_000, new SimpleMeterRegistry());
+        SupabaseJwtAuthenticationFilter filter = new SupabaseJwtAuthenticationFilter(jwtService, new TokenRevocationList(1_000, 0.01));
+        UUID userId = UUID.randomUUID();
+
+        authenticate(filter, jwtService.generateToken(Map.of("role", "authenticated"), userId.toString()), user -> {
+            assertEquals(userId, user.id());
+            assertEquals("authenticated", user.claims().get("role", String.class));
+        });
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateToken("not-a-uuid"));
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private static void authenticate(SupabaseJwtAuthenticationFilter filter, String token) throws Exception {
+        authenticate(filter, token, user -> { });
+    }
+
+    private static void authenticate(SupabaseJwtAuthenticationFilter filter, String token,
+                                     Consumer<AuthenticatedUser> check) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            throw new AssertionError("token was not accepted");
+        }
+        check.accept(user);
+        SecurityContextHolder.clearContext();
+    }
+}
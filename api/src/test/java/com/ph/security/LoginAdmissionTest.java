@@ -0,0 +1,122 @@
+package com.ph.security;
+
+import com.ph.exception.ServiceUnavailableException;
+import com.ph.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Login admission: token buckets reject excess attempts without locking, and the BCrypt pool sheds load
+ * beyond its queue instead of taking over every core.
+ */
+class LoginAdmissionTest {
+
+    @Test
+    void bucketAdmitsBurstThenRefillsOverTime() {
+        AtomicLong now = new AtomicLong();
+        StripedRateLimiter limiter = new StripedRateLimiter(1 << 16, 3, 1_000, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("a@example.com"));
+        }
+        assertEquals(1_000, limiter.tryAcquire("a@example.com"));
+        assertEquals(0, limiter.tryAcquire("b@example.com"));
+
+        now.addAndGet(1_000);
+        assertEquals(0, limiter.tryAcquire("a@example.com"));
+        assertTrue(limiter.tryAcquire("a@example.com") > 0);
+    }
+
+    @Test
+    void concurrentAttemptsNeverExceedTheBurst() throws Exception {
+        StripedRateLimiter limiter = new StripedRateLimiter(1024, 100, Duration.ofHours(1).toNanos());
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (limiter.tryAcquire("10.0.0.1") == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        pool.shutdown();
+        assertEquals(100, admitted.get());
+    }
+
+    @Test
+    void throttleRejectsPerIpAndPerEmail() {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        LoginThrottle throttle = new LoginThrottle(1 << 16, 3, Duration.ofMinutes(1), 2, Duration.ofMinutes(1), meters);
+
+        throttle.admit("victim@example.com", "10.0.0.1");
+        throttle.admit("victim@example.com", "10.0.0.2");
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> throttle.admit("victim@example.com", "10.0.0.3"));
+        assertTrue(ex.getRetryAfterSeconds() >= 1);
+
+        throttle.admit("other@example.com", "10.0.0.1");
+        throttle.admit("fourth@example.com", "10.0.0.1");
+        assertThrows(TooManyRequestsException.class, () -> throttle.admit("third@example.com", "10.0.0.1"));
+
+        assertEquals(1.0, meters.get("auth.login.rejected").tag("reason", "email").counter().count());
+        assertEquals(1.0, meters.get("auth.login.rejected").tag("reason", "ip").counter().count());
+    }
+
+    @Test
+    void saturatedVerifierShedsLoad() throws Exception {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+        String hash = encoder.encode("correct horse");
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        PasswordVerifier verifier = new PasswordVerifier(encoder, 1, 4, Duration.ofSeconds(30), meters);
+        assertTrue(verifier.matches("correct horse", hash));
+
+        int attackers = 64;
+        ExecutorService attack = Executors.newFixedThreadPool(attackers);
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < attackers; i++) {
+            futures.add(attack.submit(() -> {
+                start.await();
+                for (int j = 0; j < 5; j++) {
+                    try {
+                        verifier.matches("guess", hash);
+                    } catch (ServiceUnavailableException ex) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        attack.shutdown();
+        verifier.close();
+
+        assertTrue(rejected.get() > 0, "attempts beyond the queue should be rejected");
+        assertEquals(rejected.get(), meters.get("auth.login.rejected").tag("reason", "busy").counter().count());
+    }
+}
@@ -0,0 +1,106 @@
+package com.ph.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Revocation by jti: revoked tokens are refused by the filter, expired entries are dropped on rebuild, and
+ * with 100k revocations held, tokens that were never revoked are not reported as revoked and the bloom filter's
+ * false-positive rate stays near the configured 1%.
+ */
+class TokenRevocationListTest {
+
+    private static final String SECRET =
+            "dGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQ=";
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void filterRefusesRevokedToken() throws Exception {
+        JwtService jwtService = new JwtService(SECRET, 3_600_000, 10_000, new SimpleMeterRegistry());
+        TokenRevocationList revocations = new TokenRevocationList(1_000, 0.01);
+        SupabaseJwtAuthenticationFilter filter = new SupabaseJwtAuthenticationFilter(jwtService, revocations);
+        String token = jwtService.generateToken(UUID.randomUUID().toString());
+
+        assertTrue(authenticates(filter, token));
+        var claims = jwtService.verifiedClaims(token);
+        assertNotNull(claims.getId());
+        revocations.add(claims.getId(), claims.getExpiration().toInstant());
+        assertFalse(authenticates(filter, token));
+        assertTrue(authenticates(filter, jwtService.generateToken(UUID.randomUUID().toString())));
+    }
+
+    @Test
+    void rebuildDropsExpiredAndKeepsLoadedEntries() {
+        TokenRevocationList revocations = new TokenRevocationList(1_000, 0.01);
+        Instant now = Instant.now();
+        revocations.add("expired", now.minusSeconds(1));
+        revocations.add("local", now.plusSeconds(60));
+
+        revocations.retainUnexpired(Map.of("remote", now.plusSeconds(60), "stale", now.minusSeconds(60)), now);
+
+        assertTrue(revocations.isRevoked("local"));
+        assertTrue(revocations.isRevoked("remote"));
+        assertFalse(revocations.isRevoked("expired"));
+        assertFalse(revocations.isRevoked("stale"));
+        assertEquals(2, revocations.size());
+    }
+
+    @Test
+    void unrevokedTokensPassWithBoundedFalsePositives() {
+        int revoked = 100_000;
+        TokenRevocationList revocations = new TokenRevocationList(revoked, 0.01);
+        Instant exp = Instant.now().plus(Duration.ofHours(1));
+        for (int i = 0; i < revoked; i++) {
+            revocations.add(UUID.randomUUID().toString(), exp);
+        }
+
+        String[] fresh = new String[100_000];
+        for (int i = 0; i < fresh.length; i++) {
+            fresh[i] = UUID.randomUUID().toString();
+        }
+        for (String jti : fresh) {
+            assertFalse(revocations.isRevoked(jti));
+        }
+
+        BloomFilter filter = new BloomFilter(revoked, 0.01);
+        for (int i = 0; i < revoked; i++) {
+            filter.add(UUID.randomUUID().toString());
+        }
+        int falsePositives = 0;
+        for (String jti : fresh) {
+            if (filter.mightContain(jti)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < fresh.length * 0.02, "false-positive rate should be near the configured 1%");
+    }
+
+    private static boolean authenticates(SupabaseJwtAuthenticationFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        boolean authenticated = SecurityContextHolder.getContext().getAuthentication() != null;
+        SecurityContextHolder.clearContext();
+        return authenticated;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ph.security;
+
+import com.ph.entities.User;
+import com.ph.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Login user lookups: repeated hits and misses are answered from memory, misses expire on their own
+ * TTL, and a password changed in the database is picked up once the positive TTL runs out.
+ */
+class UserLookupCacheTest {
+
+    private final Map<String, User> table = new ConcurrentHashMap<>();
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @Test
+    void repeatedLookupsHitTheDatabaseOnce() {
+        UserLookupCache cache = cache(Duration.ofMinutes(5), Duration.ofMinutes(1));
+        add("known@example.com", "hash-1");
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(cache.findByEmail("known@example.com").isPresent());
+            assertFalse(cache.findByEmail("nobody@example.com").isPresent());
+        }
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void negativeEntriesExpireBeforePositiveOnes() throws InterruptedException {
+        UserLookupCache cache = cache(Duration.ofMinutes(5), Duration.ofMillis(50));
+        add("known@example.com", "hash-1");
+        cache.findByEmail("known@example.com");
+        assertFalse(cache.findByEmail("new@example.com").isPresent());
+
+        add("new@example.com", "hash-2");
+        Thread.sleep(100);
+
+        assertTrue(cache.findByEmail("new@example.com").isPresent());
+        cache.findByEmail("known@example.com");
+        assertEquals(3, queries.get());
+    }
+
+    @Test
+    void passwordChangeIsPickedUpAfterTtl() throws InterruptedException {
+        UserLookupCache cache = cache(Duration.ofMillis(50), Duration.ofMinutes(1));
+        add("known@example.com", "hash-1");
+        assertEquals("hash-1", cache.findByEmail("known@example.com").orElseThrow().getEncryptedPassword());
+
+        add("known@example.com", "hash-2");
+        Thread.sleep(100);
+
+        assertEquals("hash-2", cache.findByEmail("known@example.com").orElseThrow().getEncryptedPassword());
+        assertEquals(2, queries.get());
+    }
+
+    private void add(String email, String encryptedPassword) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(email);
+        user.setEncryptedPassword(encryptedPassword);
+        table.put(email, user);
+    }
+
+    private UserLookupCache cache(Duration ttl, Duration negativeTtl) {
+        UserRepository repository = (UserRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findByEmail")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    queries.incrementAndGet();
+                    return Optional.ofNullable(table.get((String) args[0]));
+                });
+        return new UserLookupCache(repository, 1_000, ttl, negativeTtl, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,142 @@
+package com.ph.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Magic-link delivery against a local stub of Supabase's /auth/v1/otp: request shape, coalescing of repeat
+ * requests, and bounded retries.
+ */
+class MagicLinkSenderTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private HttpServer server;
+    private final List<JsonNode> bodies = new CopyOnWriteArrayList<>();
+    private final List<String> apiKeys = new CopyOnWriteArrayList<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    /** Maps the 1-based call number to the status the stub answers with. */
+    private volatile IntUnaryOperator status = call -> 200;
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private MagicLinkSender sender;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/auth/v1/otp", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        if (sender != null) {
+            sender.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void forwardsEmailRedirectAndKey() throws Exception {
+        sender = sender(Duration.ofMinutes(1), 3, 10);
+        sender.send("a@example.com", "https://app.example.com/done").get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, calls.get());
+        assertEquals("a@example.com", bodies.get(0).get("email").asText());
+        assertEquals("https://app.example.com/done", bodies.get(0).get("redirect_to").asText());
+        assertEquals("anon-key", apiKeys.get(0));
+    }
+
+    @Test
+    void repeatRequestsWithinWindowShareOneUpstreamCall() throws Exception {
+        release = new CountDownLatch(1);
+        sender = sender(Duration.ofMinutes(1), 3, 10);
+
+        CompletableFuture<Void> first = sender.send("b@example.com", null);
+        CompletableFuture<Void> second = sender.send("b@example.com", null);
+        CompletableFuture<Void> other = sender.send("c@example.com", null);
+        CompletableFuture<Void> redirected = sender.send("b@example.com", "https://app.example.com/other");
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertNotSame(first, redirected);
+
+        release.countDown();
+        CompletableFuture.allOf(first, other, redirected).get(5, TimeUnit.SECONDS);
+        // Already delivered, still inside the window
+        sender.send("b@example.com", null).get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void retriesServerErrorsWithBackoff() throws Exception {
+        status = call -> call < 3 ? 503 : 200;
+        sender = sender(Duration.ofMinutes(1), 3, 10);
+
+        sender.send("d@example.com", null).get(5, TimeUnit.SECONDS);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void givesUpAfterMaxAttemptsAndDoesNotRetryClientErrors() throws Exception {
+        status = call -> 500;
+        sender = sender(Duration.ofMinutes(1), 3, 10);
+        ExecutionException failed = assertThrows(ExecutionException.class,
+                () -> sender.send("e@example.com", null).get(5, TimeUnit.SECONDS));
+        assertTrue(failed.getCause().getMessage().contains("status 500"));
+        assertEquals(3, calls.get());
+
+        // A failed send is not coalesced: asking again goes upstream again.
+        status = call -> 400;
+        calls.set(0);
+        assertThrows(ExecutionException.class, () -> sender.send("e@example.com", null).get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    private MagicLinkSender sender(Duration window, int maxAttempts, int maxPending) {
+        String url = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        return new MagicLinkSender(url, "anon-key", window, 1_000, maxPending, maxAttempts, Duration.ofMillis(20),
+                Duration.ofSeconds(5), MAPPER, new SimpleMeterRegistry());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int call = calls.incrementAndGet();
+        bodies.add(MAPPER.readTree(exchange.getRequestBody()));
+        apiKeys.add(exchange.getRequestHeaders().getFirst("apikey"));
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] response = "{}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status.applyAsInt(call), response.length);
+        exchange.getResponseBody().write(response);
+        exchange.close();
+    }
+}
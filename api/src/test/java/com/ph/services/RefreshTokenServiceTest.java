@@ -0,0 +1,123 @@
+package com.ph.services;
+
+import com.ph.entities.User;
+import com.ph.repositories.UserRepository;
+import com.ph.security.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Refresh tokens on the H2 profile: an exchange rotates the token and keeps the user; a used, expired or
+ * revoked token is refused, a reused one ends its whole session, and rotation never extends a session.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class RefreshTokenServiceTest {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID userId;
+    private String email;
+
+    @BeforeEach
+    void seed() {
+        userId = UUID.randomUUID();
+        email = userId + "@example.com";
+        User user = new User();
+        user.setId(userId);
+        user.setEmail(email);
+        user.setEncryptedPassword(passwordEncoder.encode(PASSWORD));
+        userRepository.save(user);
+    }
+
+    @Test
+    void refreshRotatesTokenAndSkipsPasswordCheck() {
+        AuthTokens login = authService.authenticate(email, PASSWORD, "10.1.0.1");
+        AuthTokens current = login;
+        for (int i = 0; i < 100; i++) {
+            current = authService.refresh(current.refreshToken());
+        }
+
+        assertEquals(userId.toString(), jwtService.extractUsername(current.accessToken()));
+        assertNotEquals(login.refreshToken(), current.refreshToken());
+        assertEquals(1, countLiveTokens());
+    }
+
+    @Test
+    void reusedTokenRevokesItsWholeSession() {
+        AuthTokens login = authService.authenticate(email, PASSWORD, "10.1.0.3");
+        AuthTokens other = authService.authenticate(email, PASSWORD, "10.1.0.3");
+        AuthTokens rotated = authService.refresh(authService.refresh(login.refreshToken()).refreshToken());
+
+        // The first token presented again, e.g. by whoever copied it before the owner rotated it
+        assertThrows(BadCredentialsException.class, () -> authService.refresh(login.refreshToken()));
+
+        assertThrows(BadCredentialsException.class, () -> authService.refresh(rotated.refreshToken()));
+        // Another login's session is not affected
+        assertEquals(userId.toString(), jwtService.extractUsername(authService.refresh(other.refreshToken()).accessToken()));
+    }
+
+    @Test
+    void rotationDoesNotExtendTheSession() {
+        AuthTokens login = authService.authenticate(email, PASSWORD, "10.1.0.4");
+        OffsetDateTime sessionEnd = OffsetDateTime.now().plusMinutes(5);
+        jdbcTemplate.update("UPDATE refresh_tokens SET session_expires_at = ? WHERE user_id = ?", sessionEnd, userId);
+
+        AuthTokens rotated = authService.refresh(login.refreshToken());
+        OffsetDateTime expiresAt = jdbcTemplate.queryForObject(
+                "SELECT expires_at FROM refresh_tokens WHERE user_id = ? AND used_at IS NULL", OffsetDateTime.class, userId);
+        assertFalse(expiresAt.isAfter(sessionEnd), "a rotated token must expire with its session");
+
+        jdbcTemplate.update("UPDATE refresh_tokens SET session_expires_at = ? WHERE user_id = ?",
+                OffsetDateTime.now().minusMinutes(1), userId);
+        assertThrows(BadCredentialsException.class, () -> authService.refresh(rotated.refreshToken()));
+    }
+
+    @Test
+    void expiredAndRevokedTokensAreRefused() {
+        AuthTokens first = authService.authenticate(email, PASSWORD, "10.1.0.2");
+        jdbcTemplate.update("UPDATE refresh_tokens SET expires_at = ? WHERE user_id = ?",
+                OffsetDateTime.now().minusMinutes(1), userId);
+        assertThrows(BadCredentialsException.class, () -> authService.refresh(first.refreshToken()));
+        assertEquals(0, countLiveTokens(), "the expired token stays consumed after the rejection");
+
+        AuthTokens second = authService.authenticate(email, PASSWORD, "10.1.0.2");
+        AuthTokens rotated = authService.refresh(second.refreshToken());
+        authService.logout(rotated.refreshToken(), null);
+        assertThrows(BadCredentialsException.class, () -> authService.refresh(rotated.refreshToken()));
+        assertEquals(0, countLiveTokens());
+    }
+
+    /** Tokens that can still be exchanged; used ones are kept until they expire, to detect reuse. */
+    private int countLiveTokens() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM refresh_tokens WHERE user_id = ? AND used_at IS NULL AND expires_at > ?",
+                Integer.class, userId, OffsetDateTime.now());
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ph.services;
+
+import com.ph.dto.TaskChangesDto;
+import com.ph.dto.TaskCreateDto;
+import com.ph.dto.TaskDto;
+import com.ph.model.Profile;
+import com.ph.repositories.ProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Archival on the H2 profile: stale tasks leave the active list and show up, paged, in the archive,
+ * while delta sync reports them as deleted.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class TaskArchiveServiceTest {
+
+    @Autowired
+    private TaskArchiveService taskArchiveService;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private TaskSyncService taskSyncService;
+    @Autowired
+    private ProfileRepository profileRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID ownerId;
+
+    @BeforeEach
+    void seed() {
+        ownerId = UUID.randomUUID();
+        Profile profile = new Profile();
+        profile.setId(ownerId);
+        profile.setEmail(ownerId + "@example.com");
+        profileRepository.save(profile);
+    }
+
+    @Test
+    void archivalIsOffByDefault() {
+        UUID id = create("Old");
+        jdbcTemplate.update("UPDATE tasks SET updated_at = ? WHERE id = ?", OffsetDateTime.now().minusYears(5), id);
+
+        taskArchiveService.archiveOldTasks();
+
+        assertEquals(List.of(id), taskService.getTasksForOwner(ownerId).stream().map(TaskDto::getId).toList());
+    }
+
+    @Test
+    void staleTasksMoveToArchive() {
+        OffsetDateTime longAgo = OffsetDateTime.now().minusYears(2);
+        List<UUID> stale = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            UUID id = create("Old " + i);
+            jdbcTemplate.update("UPDATE tasks SET updated_at = ?, created_at = ? WHERE id = ?",
+                    longAgo, longAgo.plusMinutes(i), id);
+            stale.add(id);
+        }
+        UUID fresh = create("Current");
+        String token = taskSyncService.getChangesForOwner(ownerId, null).getNext_token();
+        // Warm the list cache so the test also shows the BULK event invalidating it.
+        assertEquals(4, taskService.getTasksForOwner(ownerId).size());
+
+        assertTrue(taskArchiveService.archiveBatch(OffsetDateTime.now().minusYears(1)) >= stale.size());
+
+        List<TaskDto> active = taskService.getTasksForOwner(ownerId);
+        assertEquals(1, active.size());
+        assertEquals(fresh, active.get(0).getId());
+
+        TaskPage first = taskArchiveService.getArchivePageForOwner(ownerId, null, 2);
+        assertEquals(List.of(stale.get(2), stale.get(1)), first.tasks().stream().map(TaskDto::getId).toList());
+        assertNotNull(first.nextCursor());
+        TaskPage second = taskArchiveService.getArchivePageForOwner(ownerId, first.nextCursor(), 2);
+        assertEquals(List.of(stale.get(0)), second.tasks().stream().map(TaskDto::getId).toList());
+        assertNull(second.nextCursor());
+
+        TaskChangesDto changes = taskSyncService.getChangesForOwner(ownerId, token);
+        assertTrue(changes.getDeleted().containsAll(stale));
+    }
+
+    private UUID create(String title) {
+        TaskCreateDto dto = new TaskCreateDto();
+        dto.setTitle(title);
+        return taskService.createTask(ownerId, dto).getId();
+    }
+}
@@ -0,0 +1,47 @@
+package com.ph.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Parsing of task_changes notification payloads ("owner:task:OP"): each trigger operation maps to its event
+ * type, BULK carries no task id, and anything malformed is ignored rather than thrown.
+ */
+class TaskChangeNotificationListenerTest {
+
+    private static final UUID OWNER = UUID.randomUUID();
+    private static final UUID TASK = UUID.randomUUID();
+
+    @Test
+    void mapsTriggerOperationsToEvents() {
+        assertEquals(new TaskChangedEvent(OWNER, TASK, TaskChangedEvent.Type.CREATED),
+                TaskChangeNotificationListener.parse(OWNER + ":" + TASK + ":INSERT"));
+        assertEquals(new TaskChangedEvent(OWNER, TASK, TaskChangedEvent.Type.UPDATED),
+                TaskChangeNotificationListener.parse(OWNER + ":" + TASK + ":UPDATE"));
+        assertEquals(new TaskChangedEvent(OWNER, TASK, TaskChangedEvent.Type.DELETED),
+                TaskChangeNotificationListener.parse(OWNER + ":" + TASK + ":DELETE"));
+    }
+
+    @Test
+    void bulkHasNoTaskId() {
+        assertEquals(new TaskChangedEvent(OWNER, null, TaskChangedEvent.Type.BULK),
+                TaskChangeNotificationListener.parse(OWNER + ":*:BULK"));
+    }
+
+    @Test
+    void malformedPayloadsAreIgnored() {
+        assertNull(TaskChangeNotificationListener.parse(null));
+        assertNull(TaskChangeNotificationListener.parse(""));
+        assertNull(TaskChangeNotificationListener.parse(OWNER + ":" + TASK));
+        assertNull(TaskChangeNotificationListener.parse(OWNER + ":" + TASK + ":INSERT:extra"));
+        assertNull(TaskChangeNotificationListener.parse(OWNER + ":" + TASK + ":TRUNCATE"));
+        assertNull(TaskChangeNotificationListener.parse(OWNER + ":" + TASK + ":insert"));
+        assertNull(TaskChangeNotificationListener.parse(OWNER + ":*:INSERT"));
+        assertNull(TaskChangeNotificationListener.parse("not-a-uuid:" + TASK + ":UPDATE"));
+        assertNull(TaskChangeNotificationListener.parse(OWNER + "::DELETE"));
+    }
+}
@@ -0,0 +1,211 @@
+package com.ph.services;
+
+import com.ph.dto.TaskCreateDto;
+import com.ph.model.Profile;
+import com.ph.repositories.ProfileRepository;
+import com.ph.security.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * GET /api/tasks/stream on the H2 profile, where committed TaskChangedEvents are fanned out in-process:
+ * create, update and delete reach only the owner's subscribers, a BULK change turns into a reset, and a
+ * subscriber that stops reading is dropped once its queue passes tasks.stream.buffer-size, and its stream
+ * is completed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "tasks.stream.buffer-size=16")
+@ActiveProfiles("h2")
+class TaskEventStreamTest {
+
+    private static final long DROP_BUDGET = 5_000_000;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private ProfileRepository profileRepository;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private TaskEventBroadcaster broadcaster;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<InputStream> open = new ArrayList<>();
+
+    @AfterEach
+    void closeStreams() throws IOException {
+        for (InputStream body : open) {
+            body.close();
+        }
+    }
+
+    @Test
+    void writesReachOnlyTheOwnersSubscribers() throws Exception {
+        UUID alice = owner();
+        UUID bob = owner();
+        Stream aliceStream = subscribe(alice);
+        Stream bobStream = subscribe(bob);
+
+        UUID task = create(alice, "one");
+        assertEquals(new Event("created", idJson(task)), aliceStream.next());
+
+        TaskCreateDto update = new TaskCreateDto();
+        update.setTitle("renamed");
+        taskService.updateTaskForOwner(alice, task, update, null).orElseThrow();
+        assertEquals(new Event("updated", idJson(task)), aliceStream.next());
+
+        taskService.deleteTaskForOwner(alice, task, null);
+        assertEquals(new Event("deleted", idJson(task)), aliceStream.next());
+
+        // Events arrive in order per subscriber: bob's first event being his own shows none of alice's reached him.
+        UUID bobs = create(bob, "two");
+        assertEquals(new Event("created", idJson(bobs)), bobStream.next());
+        UUID next = create(alice, "three");
+        assertEquals(new Event("created", idJson(next)), aliceStream.next());
+    }
+
+    @Test
+    void bulkChangeResetsTheStream() throws Exception {
+        UUID owner = owner();
+        Stream stream = subscribe(owner);
+
+        eventPublisher.publishEvent(new TaskChangedEvent(owner, null, TaskChangedEvent.Type.BULK));
+
+        assertEquals(new Event("reset", "{}"), stream.next());
+    }
+
+    @Test
+    void subscriberThatStopsReadingIsDropped() throws Exception {
+        UUID owner = owner();
+        // Opened but never read: once the socket buffers fill, its writer blocks and its queue grows.
+        InputStream stalled = open(owner);
+        double droppedBefore = meterRegistry.get("tasks.stream.dropped").counter().count();
+
+        long published = assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            long n = 0;
+            while (meterRegistry.get("tasks.stream.dropped").counter().count() == droppedBefore && n < DROP_BUDGET) {
+                broadcaster.publish(owner, UUID.randomUUID(), TaskChangedEvent.Type.UPDATED);
+                n++;
+            }
+            return n;
+        });
+        assertEquals(droppedBefore + 1, meterRegistry.get("tasks.stream.dropped").counter().count(),
+                "not dropped after " + published + " events");
+
+        // Once the client reads again the pending write finishes and the stream is completed.
+        CompletableFuture<byte[]> rest = CompletableFuture.supplyAsync(() -> {
+            try {
+                return stalled.readAllBytes();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertNotNull(rest.get(60, TimeUnit.SECONDS));
+    }
+
+    private record Event(String name, String data) {}
+
+    /** Named events read off an open stream; comments (heartbeats) are skipped. */
+    private static final class Stream {
+        private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+
+        Stream(InputStream body) {
+            Thread.ofVirtual().start(() -> {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                    String name = null;
+                    String data = null;
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.startsWith("event:")) {
+                            name = line.substring("event:".length());
+                        } else if (line.startsWith("data:")) {
+                            data = line.substring("data:".length());
+                        } else if (line.isEmpty()) {
+                            if (name != null) {
+                                events.add(new Event(name, data));
+                            }
+                            name = null;
+                            data = null;
+                        }
+                    }
+                } catch (IOException ex) {
+                    // stream closed by the test
+                }
+            });
+        }
+
+        Event next() throws InterruptedException {
+            Event event = events.poll(10, TimeUnit.SECONDS);
+            assertNotNull(event, "expected an event on the stream");
+            return event;
+        }
+    }
+
+    private Stream subscribe(UUID owner) throws Exception {
+        return new Stream(open(owner));
+    }
+
+    /** Returns once the response headers arrived, i.e. the subscription is registered. */
+    private InputStream open(UUID owner) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/tasks/stream"))
+                .header("Authorization", "Bearer " + jwtService.generateToken(owner.toString()))
+                .header("Accept", "text/event-stream")
+                .build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+        open.add(response.body());
+        return response.body();
+    }
+
+    private UUID owner() {
+        UUID id = UUID.randomUUID();
+        Profile profile = new Profile();
+        profile.setId(id);
+        profile.setEmail(id + "@example.com");
+        profileRepository.save(profile);
+        return id;
+    }
+
+    private UUID create(UUID owner, String title) {
+        TaskCreateDto dto = new TaskCreateDto();
+        dto.setTitle(title);
+        return taskService.createTask(owner, dto).getId();
+    }
+
+    private static String idJson(UUID taskId) {
+        return "{\"id\":\"" + taskId + "\"}";
+    }
+}
@@ -0,0 +1,241 @@
+package com.ph.services;
+
+import com.ph.config.DatabasePlatform;
+import com.ph.dto.TaskImportResultDto;
+import com.ph.exception.PayloadTooLargeException;
+import com.ph.exception.RequestTimeoutException;
+import com.ph.exception.ServiceUnavailableException;
+import com.ph.model.Profile;
+import com.ph.repositories.ProfileRepository;
+import com.ph.repositories.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CSV import on the H2 profile (multi-row INSERT path). The large upload is generated on the fly
+ * by a Reader, so neither the test nor the import ever holds the whole file. The limits are tested on
+ * instances built with small ones; the COPY encoding (Postgres path) is read back with the CSV reader.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class TaskImportServiceTest {
+
+    private static final int ROWS = 50_000;
+
+    @Autowired
+    private TaskImportService taskImportService;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private ProfileRepository profileRepository;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DatabasePlatform databasePlatform;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UUID ownerId;
+
+    @BeforeEach
+    void seed() {
+        ownerId = newProfile();
+    }
+
+    @Test
+    void importsValidRowsForCallerAndReportsInvalidOnes() throws Exception {
+        UUID someoneElse = newProfile();
+        String csv = "owner_id,title,description,due_date\r\n"
+                + someoneElse + ",First,\"multi-line\ndescription, with \"\"quotes\"\"\",2030-01-31\r\n"
+                + someoneElse + ",,no title,\r\n"
+                + someoneElse + ",Bad date,,31/01/2030\r\n"
+                + someoneElse + ",Too,many,fields,here\r\n"
+                + "\r\n"
+                + someoneElse + ",Second,,\r\n";
+
+        TaskImportResultDto result = taskImportService.importCsv(ownerId, new StringReader(csv));
+
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getRejected());
+        assertEquals(4, result.getErrors().get(0).getLine());
+        assertEquals(5, result.getErrors().get(1).getLine());
+        assertEquals(6, result.getErrors().get(2).getLine());
+        assertEquals(2, taskService.getTasksForOwner(ownerId).size());
+        assertEquals(0, taskService.getTasksForOwner(someoneElse).size());
+        assertTrue(taskService.getTasksForOwner(ownerId).stream()
+                .anyMatch(t -> "multi-line\ndescription, with \"quotes\"".equals(t.getDescription())));
+    }
+
+    @Test
+    void malformedCsvImportsNothing() {
+        String csv = "title,description\nFine,\n\"Unterminated,quote\n";
+        assertThrows(IllegalArgumentException.class,
+                () -> taskImportService.importCsv(ownerId, new StringReader(csv)));
+        assertEquals(0L, taskRepository.findListVersion(ownerId).count());
+    }
+
+    @Test
+    void largeStreamedImport() throws Exception {
+        TaskImportResultDto result = taskImportService.importCsv(ownerId, new GeneratedCsv(ROWS));
+
+        assertEquals(ROWS, result.getImported());
+        assertEquals(0, result.getRejected());
+        assertEquals((long) ROWS, taskRepository.findListVersion(ownerId).count());
+    }
+
+    @Test
+    void uploadOverTheRowOrSizeLimitImportsNothing() throws Exception {
+        TaskImportService limited = limited(1, 3, DataSize.ofKilobytes(1), Duration.ofMinutes(1));
+
+        assertThrows(PayloadTooLargeException.class,
+                () -> limited.importCsv(ownerId, new StringReader("title\none\ntwo\nthree\nfour\n")));
+        assertThrows(PayloadTooLargeException.class,
+                () -> limited.importCsv(ownerId, new StringReader("title\n" + "x".repeat(2_000) + "\n")));
+        assertEquals(1, limited.importCsv(ownerId, new StringReader("title\nfits\n")).getImported());
+        assertEquals(1L, taskRepository.findListVersion(ownerId).count());
+    }
+
+    @Test
+    void uploadPastTheTimeoutImportsNothing() throws Exception {
+        TaskImportService limited = limited(1, 100, DataSize.ofKilobytes(1), Duration.ZERO);
+
+        assertThrows(RequestTimeoutException.class,
+                () -> limited.importCsv(ownerId, new StringReader("title\nlate\n")));
+        assertEquals(0L, taskRepository.findListVersion(ownerId).count());
+    }
+
+    @Test
+    void importsOverTheConcurrencyLimitAreRefused() throws Exception {
+        TaskImportService limited = limited(1, 100, DataSize.ofKilobytes(1), Duration.ofMinutes(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Reader stalled = new Reader() {
+            private final Reader csv = new StringReader("title\nslow\n");
+
+            @Override
+            public int read(char[] buf, int off, int len) throws IOException {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return csv.read(buf, off, len);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<TaskImportResultDto> first = executor.submit(() -> limited.importCsv(ownerId, stalled));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            assertThrows(ServiceUnavailableException.class,
+                    () -> limited.importCsv(ownerId, new StringReader("title\nrefused\n")));
+            release.countDown();
+            assertEquals(1, first.get(10, TimeUnit.SECONDS).getImported());
+        }
+        assertEquals(1, limited.importCsv(ownerId, new StringReader("title\nafter\n")).getImported());
+    }
+
+    @Test
+    void copyRowsReadBackAsTheOriginalFields() throws Exception {
+        OffsetDateTime now = OffsetDateTime.parse("2024-05-01T10:00:00Z");
+        String tricky = "He said \"hi\", then\r\nleft \\. \"\"";
+        StringBuilder copy = new StringBuilder();
+        TaskImportService.appendCopyRow(copy, "owner",
+                new TaskImportService.ImportedTask(tricky, "", LocalDate.of(2030, 1, 31), now, now));
+        TaskImportService.appendCopyRow(copy, "owner",
+                new TaskImportService.ImportedTask("\\.", null, null, now, now));
+
+        TaskCsvReader reader = new TaskCsvReader(new StringReader(copy.toString()));
+        assertEquals(List.of("owner", tricky, "", "2030-01-31", now.toString(), now.toString()), reader.readRecord());
+        assertEquals(List.of("owner", "\\.", "", "", now.toString(), now.toString()), reader.readRecord());
+        assertNull(reader.readRecord());
+        // COPY reads an unquoted empty field as NULL and a quoted one as ''
+        assertTrue(copy.toString().contains(",\"\",2030-01-31,"));
+        assertTrue(copy.toString().contains("\"\\.\",,,"));
+        assertFalse(copy.toString().contains("\n\\.\n"));
+    }
+
+    private TaskImportService limited(int maxConcurrent, long maxRows, DataSize maxSize, Duration timeout) {
+        return new TaskImportService(dataSource, jdbcTemplate, databasePlatform, eventPublisher, transactionManager,
+                maxConcurrent, maxRows, maxSize, timeout);
+    }
+
+    private UUID newProfile() {
+        UUID id = UUID.randomUUID();
+        Profile profile = new Profile();
+        profile.setId(id);
+        profile.setEmail(id + "@example.com");
+        profileRepository.save(profile);
+        return id;
+    }
+
+    /** Produces a header and the given number of rows lazily, one row at a time. */
+    private static final class GeneratedCsv extends Reader {
+        private final int rows;
+        private int next = -1;
+        private String current = "title,description,due_date,created_at\n";
+        private int pos;
+
+        GeneratedCsv(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read(char[] buf, int off, int len) {
+            if (pos == current.length()) {
+                if (++next >= rows) {
+                    return -1;
+                }
+                current = "Imported task " + next + ",\"Row " + next + ", generated\",2030-01-"
+                        + (10 + next % 20) + ",2024-05-01T10:00:00Z\n";
+                pos = 0;
+            }
+            int n = Math.min(len, current.length() - pos);
+            current.getChars(pos, pos + n, buf, off);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.ph.services;
+
+import com.ph.dto.TaskCreateDto;
+import com.ph.dto.TaskDto;
+import com.ph.model.Profile;
+import com.ph.repositories.ProfileRepository;
+import com.ph.repositories.TaskListVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A cached list that no longer matches the database version (a write this node never heard about) is
+ * reloaded instead of being served under the newer ETag.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class TaskListCacheTest {
+
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private ProfileRepository profileRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID ownerId;
+
+    @BeforeEach
+    void seed() {
+        ownerId = UUID.randomUUID();
+        Profile profile = new Profile();
+        profile.setId(ownerId);
+        profile.setEmail(ownerId + "@example.com");
+        profileRepository.save(profile);
+    }
+
+    @Test
+    void staleEntryIsReloadedWhenVersionMoves() {
+        TaskCreateDto dto = new TaskCreateDto();
+        dto.setTitle("Before");
+        UUID id = taskService.createTask(ownerId, dto).getId();
+        assertEquals("Before", taskService.getTasksForOwner(ownerId, taskService.getListVersion(ownerId)).get(0).getTitle());
+
+        // Bypasses TaskService, so no TaskChangedEvent reaches the cache (as with a write on another node).
+        jdbcTemplate.update("UPDATE tasks SET title = ?, updated_at = ? WHERE id = ?",
+                "After", OffsetDateTime.now().plusSeconds(1), id);
+
+        assertEquals("Before", taskService.getTasksForOwner(ownerId).get(0).getTitle());
+        TaskListVersion version = taskService.getListVersion(ownerId);
+        List<TaskDto> tasks = taskService.getTasksForOwner(ownerId, version);
+        assertEquals("After", tasks.get(0).getTitle());
+        assertEquals("After", taskService.getTasksForOwner(ownerId).get(0).getTitle());
+    }
+}
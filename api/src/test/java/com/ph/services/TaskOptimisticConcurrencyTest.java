@@ -0,0 +1,143 @@
+package com.ph.services;
+
+import com.ph.dto.TaskCreateDto;
+import com.ph.exception.PreconditionFailedException;
+import com.ph.model.Profile;
+import com.ph.model.Task;
+import com.ph.repositories.ProfileRepository;
+import com.ph.repositories.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads increment a counter kept in one task's description with read / conditional write /
+ * retry-on-412 cycles. Every increment must survive and the version must count the commits. Contention
+ * must not turn into retry storms: a commit can invalidate at most the other writers' pending reads,
+ * so conflicts stay within (threads - 1) per successful write, and no single increment starves.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class TaskOptimisticConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int INCREMENTS_PER_THREAD = 50;
+    private static final int TOTAL = THREADS * INCREMENTS_PER_THREAD;
+    /** Retries one increment may need before it counts as starved. */
+    private static final int MAX_RETRIES_PER_WRITE = 10 * THREADS;
+
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private ProfileRepository profileRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UUID ownerId;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void seed() {
+        ownerId = UUID.randomUUID();
+        Profile profile = new Profile();
+        profile.setId(ownerId);
+        profile.setEmail(ownerId + "@example.com");
+        profileRepository.save(profile);
+
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    void conditionalWritesLoseNoUpdatesUnderContention() throws Exception {
+        UUID shared = createCounter();
+        Contention contention = run(shared, THREADS, INCREMENTS_PER_THREAD);
+
+        Task result = readOnly.execute(status -> taskRepository.findByIdAndOwnerId(shared, ownerId).orElseThrow());
+        assertEquals(String.valueOf(TOTAL), result.getDescription(), "no increment may be lost");
+        assertEquals(TOTAL, result.getVersion(), "every committed write bumps the version once");
+        assertTrue(contention.conflicts() <= (long) (THREADS - 1) * TOTAL,
+                "conflicts per write should stay within the number of competing writers: " + contention);
+        assertTrue(contention.maxRetries() <= MAX_RETRIES_PER_WRITE, "an increment starved: " + contention);
+    }
+
+    @Test
+    void singleWriterNeverConflicts() throws Exception {
+        UUID own = createCounter();
+        Contention contention = run(own, 1, INCREMENTS_PER_THREAD);
+
+        Task result = readOnly.execute(status -> taskRepository.findByIdAndOwnerId(own, ownerId).orElseThrow());
+        assertEquals(String.valueOf(INCREMENTS_PER_THREAD), result.getDescription());
+        assertEquals(0, contention.conflicts());
+    }
+
+    private UUID createCounter() {
+        TaskCreateDto dto = new TaskCreateDto();
+        dto.setTitle("counter");
+        dto.setDescription("0");
+        return taskService.createTask(ownerId, dto).getId();
+    }
+
+    /** 412s seen across all writers, and the most any single increment needed before it committed. */
+    private record Contention(long conflicts, int maxRetries) {}
+
+    private Contention run(UUID taskId, int threads, int incrementsPerThread) throws Exception {
+        AtomicLong conflicts = new AtomicLong();
+        AtomicInteger maxRetries = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                writers.add(pool.submit(() -> {
+                    for (int n = 0; n < incrementsPerThread; n++) {
+                        int retries = 0;
+                        while (!tryIncrement(taskId)) {
+                            retries++;
+                        }
+                        conflicts.addAndGet(retries);
+                        maxRetries.accumulateAndGet(retries, Math::max);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Contention(conflicts.get(), maxRetries.get());
+    }
+
+    private boolean tryIncrement(UUID taskId) {
+        Task current = readOnly.execute(status -> taskRepository.findByIdAndOwnerId(taskId, ownerId).orElseThrow());
+        TaskCreateDto dto = new TaskCreateDto();
+        dto.setTitle(current.getTitle());
+        dto.setDescription(String.valueOf(Long.parseLong(current.getDescription()) + 1));
+        try {
+            taskService.updateTaskForOwner(ownerId, taskId, dto, current.getVersion()).orElseThrow();
+            return true;
+        } catch (PreconditionFailedException ex) {
+            return false;
+        }
+    }
+}
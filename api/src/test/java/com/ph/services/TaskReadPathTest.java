@@ -0,0 +1,90 @@
+package com.ph.services;
+
+import com.ph.dto.TaskDto;
+import com.ph.model.Profile;
+import com.ph.model.Task;
+import com.ph.repositories.ProfileRepository;
+import com.ph.repositories.TaskRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The projection path (TaskDto built by the query in a read-only transaction) must list exactly what the
+ * old path (managed entities copied into TaskDto) did, in the same order.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class TaskReadPathTest {
+
+    private static final int TASKS = 2_000;
+
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private ProfileRepository profileRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UUID ownerId;
+
+    @BeforeEach
+    void seed() {
+        ownerId = UUID.randomUUID();
+        Profile profile = new Profile();
+        profile.setId(ownerId);
+        profile.setEmail(ownerId + "@example.com");
+        profileRepository.save(profile);
+
+        List<Task> tasks = new ArrayList<>(TASKS);
+        OffsetDateTime now = OffsetDateTime.now();
+        for (int i = 0; i < TASKS; i++) {
+            tasks.add(new Task(null, ownerId, "Task " + i, "Description of task " + i,
+                    null, now.minusSeconds(i), now.minusSeconds(i)));
+        }
+        taskRepository.saveAll(tasks);
+    }
+
+    @Test
+    void projectionReturnsSameTasksAsEntityHydration() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        List<TaskDto> entityPath = readWrite.execute(status -> entityManager
+                .createQuery("select t from Task t where t.ownerId = :ownerId order by t.createdAt desc, t.id asc", Task.class)
+                .setParameter("ownerId", ownerId)
+                .getResultList()
+                .stream()
+                .map(t -> new TaskDto(t.getId(), t.getTitle(), t.getDescription(), t.getDueDate(),
+                        t.getCreatedAt(), t.getUpdatedAt()))
+                .toList());
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        // Straight to the repository: TaskService would answer repeated reads from TaskListCache.
+        List<TaskDto> projectionPath = readOnly.execute(status -> taskRepository.findDtosByOwnerId(ownerId));
+
+        assertEquals(TASKS, entityPath.size());
+        assertEquals(fields(entityPath), fields(projectionPath));
+    }
+
+    /** TaskDto has no equals; compare the fields, timestamps as instants. */
+    private static List<List<Object>> fields(List<TaskDto> tasks) {
+        return tasks.stream()
+                .map(t -> Arrays.<Object>asList(t.getId(), t.getTitle(), t.getDescription(), t.getDue_date(),
+                        t.getCreated_at().toInstant(), t.getUpdated_at().toInstant()))
+                .toList();
+    }
+}
@@ -0,0 +1,98 @@
+package com.ph.services;
+
+import com.ph.dto.TaskCreateDto;
+import com.ph.dto.TaskStatsDto;
+import com.ph.model.Profile;
+import com.ph.repositories.ProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stats buckets on the H2 profile (aggregated from tasks): each task lands in the bucket its due date falls
+ * into relative to the given day, counts are per owner, and a write moves the counts with it.
+ * The Postgres counters (V9 triggers, V17 roll) are exercised only against Postgres.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class TaskStatsServiceTest {
+
+    // A Wednesday, so the week runs to Sunday the 15th
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 11);
+
+    @Autowired
+    private TaskStatsService taskStatsService;
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    private UUID ownerId;
+
+    @BeforeEach
+    void seed() {
+        ownerId = owner();
+    }
+
+    @Test
+    void tasksLandInTheirDueDateBuckets() {
+        create(ownerId, TODAY.minusYears(2));
+        create(ownerId, TODAY.minusDays(1));
+        create(ownerId, TODAY);
+        create(ownerId, TODAY.plusDays(1));
+        create(ownerId, TODAY.plusDays(4));
+        create(ownerId, TODAY.plusDays(5));
+        create(ownerId, null);
+        create(owner(), TODAY.minusDays(1));
+
+        TaskStatsDto stats = taskStatsService.getStatsForOwner(ownerId, TODAY);
+
+        assertEquals(7, stats.getTotal());
+        assertEquals(2, stats.getOverdue());
+        assertEquals(1, stats.getDue_today());
+        assertEquals(2, stats.getDue_this_week());
+        assertEquals(1, stats.getNo_due_date());
+    }
+
+    @Test
+    void updateAndDeleteMoveTheCounts() {
+        UUID task = create(ownerId, TODAY.minusDays(3));
+        assertEquals(1, taskStatsService.getStatsForOwner(ownerId, TODAY).getOverdue());
+
+        TaskCreateDto dto = new TaskCreateDto();
+        dto.setTitle("moved");
+        dto.setDue_date(TODAY);
+        taskService.updateTaskForOwner(ownerId, task, dto, null).orElseThrow();
+        TaskStatsDto moved = taskStatsService.getStatsForOwner(ownerId, TODAY);
+        assertEquals(0, moved.getOverdue());
+        assertEquals(1, moved.getDue_today());
+
+        taskService.deleteTaskForOwner(ownerId, task, null);
+        TaskStatsDto empty = taskStatsService.getStatsForOwner(ownerId, TODAY);
+        assertEquals(0, empty.getTotal());
+        assertEquals(0, empty.getDue_today());
+    }
+
+    private UUID owner() {
+        UUID id = UUID.randomUUID();
+        Profile profile = new Profile();
+        profile.setId(id);
+        profile.setEmail(id + "@example.com");
+        profileRepository.save(profile);
+        return id;
+    }
+
+    private UUID create(UUID owner, LocalDate dueDate) {
+        TaskCreateDto dto = new TaskCreateDto();
+        dto.setTitle("task");
+        dto.setDue_date(dueDate);
+        return taskService.createTask(owner, dto).getId();
+    }
+}
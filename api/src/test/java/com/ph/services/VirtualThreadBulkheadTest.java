@@ -0,0 +1,76 @@
+package com.ph.services;
+
+import com.ph.model.Profile;
+import com.ph.model.Task;
+import com.ph.repositories.ProfileRepository;
+import com.ph.repositories.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Simulates many concurrent requests on virtual threads, each waiting on I/O outside the database and
+ * then reading a page of tasks through TaskService. Every request must succeed: the connection
+ * bulkhead queues the virtual threads instead of letting them time out in the pool.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class VirtualThreadBulkheadTest {
+
+    private static final int REQUESTS = 4_000;
+    private static final long IO_WAIT_MS = 20;
+
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    private UUID ownerId;
+
+    @BeforeEach
+    void seed() {
+        ownerId = UUID.randomUUID();
+        Profile profile = new Profile();
+        profile.setId(ownerId);
+        profile.setEmail(ownerId + "@example.com");
+        profileRepository.save(profile);
+
+        List<Task> tasks = new ArrayList<>();
+        OffsetDateTime now = OffsetDateTime.now();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new Task(null, ownerId, "Task " + i, null, null, now.minusSeconds(i), now.minusSeconds(i)));
+        }
+        taskRepository.saveAll(tasks);
+    }
+
+    @Test
+    void everyVirtualThreadRequestSucceedsThroughTheBulkhead() throws Exception {
+        List<Future<Integer>> results = new ArrayList<>(REQUESTS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                results.add(executor.submit(() -> {
+                    Thread.sleep(IO_WAIT_MS);
+                    return taskService.getTaskPageForOwner(ownerId, null, 20).tasks().size();
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(20, result.get(60, TimeUnit.SECONDS));
+            }
+        }
+    }
+}